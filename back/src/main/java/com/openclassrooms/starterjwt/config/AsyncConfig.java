@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Runs waitlist promotions off the request threads. The queue is bounded:
+     * when it overflows the freed seat is given back instead of piling up work.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor waitlistExecutor(@Value("${oc.app.waitlist.poolSize:2}") int poolSize,
+                                                   @Value("${oc.app.waitlist.queueCapacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("waitlist-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+
+        return executor;
+    }
+
+    /**
+     * Runs password hashing, see BulkheadPasswordEncoder. Defaults to one thread per core, since BCrypt is
+     * CPU-bound; the short queue makes overload fail fast instead of piling up waiting logins.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashingExecutor(@Value("${oc.app.passwordHashing.poolSize:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+                                                          @Value("${oc.app.passwordHashing.queueCapacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+
+        return executor;
+    }
+
+    /**
+     * Re-hashes passwords stored with an outdated BCrypt strength after login, see PasswordUpgrader. A single
+     * thread is enough for a background task; when the queue is full the upgrade waits for a later login.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordUpgradeExecutor(@Value("${oc.app.passwordUpgrade.queueCapacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-upgrade-");
+
+        return executor;
+    }
+}
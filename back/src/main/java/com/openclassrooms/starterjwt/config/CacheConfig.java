@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
+    public static final String TEACHERS_CACHE = "teachers";
+
+    /**
+     * Every cache is bounded and records its statistics, which actuator publishes as
+     * {@code cache.gets{result=hit|miss}}, {@code cache.puts} and {@code cache.evictions}.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${oc.app.cache.userDetails.maximumSize:10000}") long userDetailsMaximumSize,
+                                     @Value("${oc.app.cache.userDetails.expireAfterWrite:5m}") Duration userDetailsExpireAfterWrite,
+                                     @Value("${oc.app.cache.teachers.maximumSize:1000}") long teachersMaximumSize,
+                                     @Value("${oc.app.cache.teachers.expireAfterWrite:1h}") Duration teachersExpireAfterWrite) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(USER_DETAILS_CACHE, Caffeine.newBuilder()
+                .maximumSize(userDetailsMaximumSize)
+                .expireAfterWrite(userDetailsExpireAfterWrite)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(TEACHERS_CACHE, Caffeine.newBuilder()
+                .maximumSize(teachersMaximumSize)
+                .expireAfterWrite(teachersExpireAfterWrite)
+                .recordStats()
+                .build());
+
+        return cacheManager;
+    }
+}
@@ -0,0 +1,79 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Measures the lag of the read replica with a heartbeat: each check writes the current time to
+ * REPLICATION_HEARTBEAT on the primary, then reads back the latest beat the replica has applied. The replica is
+ * only used while it lags less than {@code maxLag}; until the first check, and whenever it cannot be read, reads
+ * fall back to the primary.
+ * <p>
+ * The lag is measured with a resolution of the check interval, which must be well below {@code maxLag}. It is
+ * published as {@code db.replica.lag} in seconds, {@code db.replica.available} tells whether reads use the replica.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+
+    private final JdbcTemplate replica;
+
+    private final long maxLagMillis;
+
+    private volatile boolean replicaAvailable;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+
+        Gauge.builder("db.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("db.replica.available", this, monitor -> monitor.replicaAvailable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaAvailable() {
+        return this.replicaAvailable;
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.datasource.replica.heartbeatIntervalMs:1000}", initialDelayString = "${oc.app.datasource.replica.heartbeatIntervalMs:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        boolean available;
+        try {
+            this.primary.update("UPDATE REPLICATION_HEARTBEAT SET beat_at = ? WHERE id = 1", now);
+            Long beatAt = this.replica.queryForObject("SELECT beat_at FROM REPLICATION_HEARTBEAT WHERE id = 1", Long.class);
+            long lagMillis = Math.max(0, now - (beatAt != null ? beatAt : 0));
+            this.lagSeconds = lagMillis / 1000.0;
+            available = lagMillis <= this.maxLagMillis;
+        } catch (DataAccessException e) {
+            this.lagSeconds = Double.NaN;
+            available = false;
+            if (this.replicaAvailable) {
+                logger.warn("Cannot measure the replica lag: {}", e.getMessage());
+            }
+        }
+
+        if (available != this.replicaAvailable) {
+            if (available) {
+                logger.info("Replica {} s behind the primary, read-only transactions use it", this.lagSeconds);
+            } else {
+                logger.warn("Replica unreachable or more than {} ms behind the primary, read-only transactions use the primary", this.maxLagMillis);
+            }
+        }
+        this.replicaAvailable = available;
+    }
+}
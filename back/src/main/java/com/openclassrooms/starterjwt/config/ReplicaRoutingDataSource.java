@@ -0,0 +1,41 @@
+package com.openclassrooms.starterjwt.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the read replica while it keeps up with the primary, and everything else to the
+ * primary. Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction is only marked read-only after it has begun, so the connection must not be fetched before.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && this.replicaLagMonitor.isReplicaAvailable()) {
+            return REPLICA;
+        }
+
+        return PRIMARY;
+    }
+}
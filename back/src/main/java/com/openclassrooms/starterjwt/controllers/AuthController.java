@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.controllers;
 
 import javax.validation.Valid;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -11,17 +12,23 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshTokenRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.RefreshTokenService;
+
+import io.jsonwebtoken.Claims;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -31,15 +38,21 @@ public class AuthController {
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final JwtRevocationList jwtRevocationList;
 
     AuthController(AuthenticationManager authenticationManager,
             PasswordEncoder passwordEncoder,
             JwtUtils jwtUtils,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            RefreshTokenService refreshTokenService,
+            JwtRevocationList jwtRevocationList) {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.jwtRevocationList = jwtRevocationList;
     }
 
     @PostMapping("/login")
@@ -50,20 +63,46 @@ public class AuthController {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
+        // Loaded once by the authentication, admin flag included
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        boolean isAdmin = false;
-        User user = this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
-        if (user != null) {
-            isAdmin = user.isAdmin();
-        }
-
         return ResponseEntity.ok(new JwtResponse(jwt,
+                refreshTokenService.issue(userDetails.getId()),
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getFirstName(),
                 userDetails.getLastName(),
-                isAdmin));
+                Boolean.TRUE.equals(userDetails.getAdmin())));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
+        UserDetailsImpl userDetails = UserDetailsImpl.build(rotation.getUser());
+
+        return ResponseEntity.ok(new JwtResponse(jwtUtils.generateJwtToken(userDetails),
+                rotation.getRefreshToken(),
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getFirstName(),
+                userDetails.getLastName(),
+                userDetails.getAdmin()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        refreshTokenService.revoke(refreshTokenRequest.getRefreshToken());
+
+        // The access token would otherwise stay usable until it expires
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            Claims claims = jwtUtils.parseJwtClaims(authorization.substring(7));
+            if (claims != null) {
+                jwtRevocationList.revokeToken(claims);
+            }
+        }
+
+        return ResponseEntity.ok().build();
     }
 
     @PostMapping("/register")
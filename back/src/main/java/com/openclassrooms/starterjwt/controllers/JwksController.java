@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyManager;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the JWT verification keys, so that other services and edge proxies can verify tokens
+ * without sharing any secret with this application.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+public class JwksController {
+    private final JwtKeyManager jwtKeyManager;
+
+
+    public JwksController(JwtKeyManager jwtKeyManager) {
+        this.jwtKeyManager = jwtKeyManager;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        // Shorter than oc.app.jwt.publicationDelay, so that verifiers see a new key before it signs
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(this.jwtKeyManager.jwks());
+    }
+}
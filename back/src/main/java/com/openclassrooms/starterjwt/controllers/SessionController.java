@@ -4,31 +4,49 @@ package com.openclassrooms.starterjwt.controllers;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.BulkEnrolmentRequest;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.response.EnrolmentResult;
+import com.openclassrooms.starterjwt.payload.response.SessionPageResponse;
+import com.openclassrooms.starterjwt.services.EnrolmentService;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final WaitlistService waitlistService;
+    private final EnrolmentService enrolmentService;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             WaitlistService waitlistService,
+                             EnrolmentService enrolmentService) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.waitlistService = waitlistService;
+        this.enrolmentService = enrolmentService;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id,
+                                      @RequestParam(value = "users", defaultValue = "true") boolean includeUsers) {
         try {
             Session session = this.sessionService.getById(Long.valueOf(id));
 
@@ -36,17 +54,46 @@ public class SessionController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            SessionDto sessionDto = this.sessionMapper.toSummaryDto(session);
+
+            return ResponseEntity.ok().body(this.withParticipants(Collections.singletonList(sessionDto), includeUsers).get(0));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(@RequestParam(value = "users", defaultValue = "true") boolean includeUsers) {
+        List<SessionDto> sessions = this.sessionService.findAllSummaries();
+
+        return ResponseEntity.ok().body(this.withParticipants(sessions, includeUsers));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> findPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "size", defaultValue = "20") String size,
+                                      @RequestParam(value = "users", defaultValue = "false") boolean includeUsers) {
+        try {
+            int pageSize = Integer.parseInt(size);
+            if (pageSize < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
+            SessionCursor after = cursor != null ? SessionCursor.decode(cursor) : null;
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+            // One extra row tells whether a next page exists without a count query
+            List<SessionDto> sessions = this.sessionService.findPage(after, pageSize + 1);
+            String nextCursor = null;
+            if (sessions.size() > pageSize) {
+                sessions = sessions.subList(0, pageSize);
+                nextCursor = SessionCursor.of(sessions.get(pageSize - 1)).encode();
+            }
+
+            return ResponseEntity.ok().body(new SessionPageResponse(this.withParticipants(sessions, includeUsers), nextCursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping()
@@ -107,4 +154,76 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Enrols a group of users in one session and reports the outcome of each user id.
+     */
+    @PostMapping("{id}/participants")
+    public ResponseEntity<?> participateAll(@PathVariable("id") String id, @Valid @RequestBody BulkEnrolmentRequest request) {
+        try {
+            List<EnrolmentResult> results = this.enrolmentService.enrolUsers(Long.parseLong(id), request.getIds());
+
+            return ResponseEntity.ok().body(results);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Enrols one user in several sessions and reports the outcome of each session id.
+     */
+    @PostMapping("participate/{userId}")
+    public ResponseEntity<?> participateInAll(@PathVariable("userId") String userId, @Valid @RequestBody BulkEnrolmentRequest request) {
+        try {
+            List<EnrolmentResult> results = this.enrolmentService.enrolInSessions(Long.parseLong(userId), request.getIds());
+
+            return ResponseEntity.ok().body(results);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> joinWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.waitlistService.join(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.waitlistService.leave(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Completes read-side DTOs with one query over PARTICIPATE for the whole batch:
+     * participant ids when asked for, otherwise only the aggregated count.
+     */
+    private List<SessionDto> withParticipants(List<SessionDto> sessionDtos, boolean includeUsers) {
+        List<Long> sessionIds = sessionDtos.stream().map(SessionDto::getId).collect(Collectors.toList());
+
+        if (includeUsers) {
+            Map<Long, List<Long>> participantIds = this.sessionService.findParticipantIds(sessionIds);
+            sessionDtos.forEach(sessionDto -> {
+                List<Long> users = participantIds.getOrDefault(sessionDto.getId(), Collections.emptyList());
+                sessionDto.setUsers(users);
+                sessionDto.setParticipantCount((long) users.size());
+            });
+        } else {
+            Map<Long, Long> participantCounts = this.sessionService.countParticipants(sessionIds);
+            sessionDtos.forEach(sessionDto -> sessionDto.setParticipantCount(participantCounts.getOrDefault(sessionDto.getId(), 0L)));
+        }
+
+        return sessionDtos;
+    }
 }
@@ -1,5 +1,6 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.services.TeacherService;
@@ -38,8 +39,8 @@ public class TeacherController {
 
     @GetMapping()
     public ResponseEntity<?> findAll() {
-        List<Teacher> teachers = this.teacherService.findAll();
+        List<TeacherDto> teachers = this.teacherService.findAllDtos();
 
-        return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
+        return ResponseEntity.ok().body(teachers);
     }
 }
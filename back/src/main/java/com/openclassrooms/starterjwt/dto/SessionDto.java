@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -33,7 +34,20 @@ public class SessionDto {
 
     private List<Long> users;
 
+    private Long participantCount;
+
+    @Min(1)
+    private Integer capacity;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    /**
+     * Row of the summary projections of SessionRepository, without participants: they are read in batch afterwards.
+     */
+    public SessionDto(Long id, String name, Date date, Long teacher_id, String description, Integer capacity,
+                      LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, date, teacher_id, description, null, null, capacity, createdAt, updatedAt);
+    }
 }
@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.openclassrooms.starterjwt.payload.response.ErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Writes error bodies straight to the response with a single writer built once, for the security entry points and
+ * for the exceptions of {@link RestExceptionHandler}: no mapper nor map per response, and no error dispatch.
+ */
+@Component
+public class ErrorResponseWriter {
+    private final ObjectWriter objectWriter;
+
+    public ErrorResponseWriter(ObjectMapper objectMapper) {
+        this.objectWriter = objectMapper.writerFor(ErrorResponse.class);
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        objectWriter.writeValue(response.getOutputStream(),
+                new ErrorResponse(status.value(), status.getReasonPhrase(), message, request.getServletPath()));
+    }
+}
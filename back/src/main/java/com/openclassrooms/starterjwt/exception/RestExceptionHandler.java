@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Renders the exceptions thrown by the services for a client error with {@link ErrorResponseWriter}, instead of
+ * letting {@code @ResponseStatus} send an error the container forwards to {@code /error}, through the whole filter
+ * chain again.
+ */
+@RestControllerAdvice
+public class RestExceptionHandler {
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public RestExceptionHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public void handleBadRequest(BadRequestException e, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        this.errorResponseWriter.write(request, response, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public void handleNotFound(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        this.errorResponseWriter.write(request, response, HttpStatus.NOT_FOUND, null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A request shed under load. Extends {@link ResponseStatusException} rather than using {@code @ResponseStatus},
+ * so that the response also tells clients when to retry.
+ */
+public class ServiceUnavailableException extends ResponseStatusException {
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getResponseHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+
+        return headers;
+    }
+}
@@ -1,19 +1,21 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
+import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -25,18 +27,94 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
     @Autowired
     UserService userService;
 
+    /**
+     * Maps the session columns only; teacher and participants are resolved in batch by {@link #toEntity(List)}.
+     */
+    @Named("columns")
     @Mappings({
             @Mapping(source = "description", target = "description"),
-            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.findById(sessionDto.getTeacher_id()) : null)"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"),
+            @Mapping(target = "teacher", ignore = true),
+            @Mapping(target = "users", ignore = true),
     })
-    public abstract Session toEntity(SessionDto sessionDto);
+    protected abstract Session toEntityColumns(SessionDto sessionDto);
+
+    @Override
+    public Session toEntity(SessionDto sessionDto) {
+        if (sessionDto == null) {
+            return null;
+        }
+
+        return this.toEntity(Collections.singletonList(sessionDto)).get(0);
+    }
+
+    /**
+     * Resolves the teachers and participants referenced by all DTOs with one query each, instead of one per id.
+     *
+     * @throws BadRequestException when a participant id does not match any user
+     */
+    @Override
+    public List<Session> toEntity(List<SessionDto> sessionDtos) {
+        if (sessionDtos == null) {
+            return null;
+        }
+
+        Set<Long> teacherIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (SessionDto sessionDto : sessionDtos) {
+            if (sessionDto == null) {
+                continue;
+            }
+            if (sessionDto.getTeacher_id() != null) {
+                teacherIds.add(sessionDto.getTeacher_id());
+            }
+            if (sessionDto.getUsers() != null) {
+                userIds.addAll(sessionDto.getUsers());
+            }
+        }
+
+        Map<Long, Teacher> teachers = teacherIds.isEmpty() ? Collections.emptyMap()
+                : this.teacherService.findAllById(teacherIds).stream().collect(Collectors.toMap(Teacher::getId, Function.identity()));
+        Map<Long, User> users = userIds.isEmpty() ? Collections.emptyMap()
+                : this.userService.findAllById(userIds).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
+        if (users.size() < userIds.size()) {
+            userIds.removeAll(users.keySet());
+            throw new BadRequestException("Unknown user ids: " + new TreeSet<>(userIds));
+        }
+
+        List<Session> sessions = new ArrayList<>(sessionDtos.size());
+        for (SessionDto sessionDto : sessionDtos) {
+            Session session = this.toEntityColumns(sessionDto);
+            if (session != null) {
+                session.setTeacher(sessionDto.getTeacher_id() != null ? teachers.get(sessionDto.getTeacher_id()) : null);
+                session.setUsers(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream()
+                        .map(users::get)
+                        .collect(Collectors.toList()));
+            }
+            sessions.add(session);
+        }
+
+        return sessions;
+    }
 
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
             @Mapping(source = "session.teacher.id", target = "teacher_id"),
             @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
+            @Mapping(target = "participantCount", expression = "java(session.getUsers() != null ? (long) session.getUsers().size() : 0L)"),
     })
     public abstract SessionDto toDto(Session session);
+
+    /**
+     * Maps the session columns only, leaving participants untouched so that the lazy collection is never loaded.
+     * Callers fill {@code participantCount} and, when requested, {@code users} from PARTICIPATE.
+     */
+    @Named("summary")
+    @Mappings({
+            @Mapping(source = "session.teacher.id", target = "teacher_id"),
+            @Mapping(target = "users", ignore = true),
+            @Mapping(target = "participantCount", ignore = true),
+    })
+    public abstract SessionDto toSummaryDto(Session session);
 }
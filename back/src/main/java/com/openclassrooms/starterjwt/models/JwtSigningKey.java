@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+
+/**
+ * An RS256 key pair shared by every node. The private key is stored encrypted, see JwtKeyManager.
+ */
+@Entity
+@Table(name = "JWT_SIGNING_KEYS", uniqueConstraints = {
+        @UniqueConstraint(columnNames = "kid")
+})
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"privateKey"})
+public class JwtSigningKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(length = 64)
+    private String kid;
+
+    @NotNull
+    @Column(length = 10)
+    private String algorithm;
+
+    /**
+     * Base64 X.509 encoding of the public key.
+     */
+    @NotNull
+    @Column(name = "public_key", length = 2048)
+    private String publicKey;
+
+    /**
+     * Base64 encoding of the IV followed by the AES-GCM encrypted PKCS#8 private key.
+     */
+    @NotNull
+    @Column(name = "private_key", length = 4096)
+    private String privateKey;
+
+    @NotNull
+    @Column(name = "activates_at")
+    private Instant activatesAt;
+}
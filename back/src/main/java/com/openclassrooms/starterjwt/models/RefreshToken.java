@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+
+/**
+ * The current refresh token of a login, see RefreshTokenService.
+ * <p>
+ * A login keeps a single row for its whole lifetime: rotation replaces the hash in place, so that a token
+ * already used is recognised by its family id without keeping a row per issued token.
+ */
+@Entity
+@Table(name = "REFRESH_TOKENS", indexes = {
+        @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"familyId"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"tokenHash"})
+public class RefreshToken {
+    @Id
+    @Column(name = "family_id", length = 36)
+    private String familyId;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Hex SHA-256 of the secret part of the current token; the token itself is never stored.
+     */
+    @NotNull
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @NotNull
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+}
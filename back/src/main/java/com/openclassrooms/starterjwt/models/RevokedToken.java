@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+
+/**
+ * A revoked access token, or every access token of a user issued up to {@code revokedAt}, see JwtRevocationList.
+ * Rows are useless, and purged, once {@code expiresAt} is past.
+ */
+@Entity
+@Table(name = "REVOKED_TOKENS", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * {@code jti:<token id>} or {@code user:<user id>}.
+     */
+    @NotNull
+    @Column(name = "token_key", length = 64)
+    private String tokenKey;
+
+    @NotNull
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    @NotNull
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+}
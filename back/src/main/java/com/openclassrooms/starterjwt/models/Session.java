@@ -3,11 +3,14 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -16,7 +19,9 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "SESSIONS")
+@Table(name = "SESSIONS", indexes = {
+        @Index(name = "idx_sessions_date_id", columnList = "date, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -26,8 +31,16 @@ import java.util.List;
 @AllArgsConstructor
 @ToString
 public class Session {
+    // Ids are reserved in blocks from ID_GENERATORS rather than by IDENTITY, which makes Hibernate insert every
+    // entity on its own as soon as it is persisted instead of batching the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "session_id_generator")
+    @GenericGenerator(name = "session_id_generator", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "ID_GENERATORS"),
+            @Parameter(name = "segment_value", value = "SESSIONS"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
     @NotBlank
@@ -41,15 +54,22 @@ public class Session {
     @Size(max = 2500)
     private String description;
 
+    /**
+     * Maximum number of participants, {@code null} when the session is not limited.
+     */
+    @Min(1)
+    private Integer capacity;
+
     @OneToOne
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
-            inverseJoinColumns = @JoinColumn( name = "user_id" ) )
+            inverseJoinColumns = @JoinColumn( name = "user_id" ),
+            uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "user_id"}) )
     private List<User> users;
 
     @CreatedDate
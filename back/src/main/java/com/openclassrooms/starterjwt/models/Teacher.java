@@ -1,7 +1,10 @@
 package com.openclassrooms.starterjwt.models;
 
+import com.openclassrooms.starterjwt.services.TeacherCacheEvictor;
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,7 +16,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "TEACHERS")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, TeacherCacheEvictor.class})
 @Data
 @Accessors(chain = true)
 @EqualsAndHashCode(of = {"id"})
@@ -23,7 +26,13 @@ import java.time.LocalDateTime;
 @ToString
 public class Teacher {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "teacher_id_generator")
+    @GenericGenerator(name = "teacher_id_generator", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "ID_GENERATORS"),
+            @Parameter(name = "segment_value", value = "TEACHERS"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
     @NotBlank
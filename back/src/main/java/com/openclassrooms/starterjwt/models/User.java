@@ -1,7 +1,10 @@
 package com.openclassrooms.starterjwt.models;
 
+import com.openclassrooms.starterjwt.security.services.UserDetailsCacheEvictor;
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,7 +20,7 @@ import java.time.LocalDateTime;
 })
 @Data
 @Accessors(chain = true)
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserDetailsCacheEvictor.class})
 @EqualsAndHashCode(of = {"id"})
 @Builder
 @NoArgsConstructor
@@ -26,7 +29,13 @@ import java.time.LocalDateTime;
 @ToString
 public class User {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "user_id_generator")
+  @GenericGenerator(name = "user_id_generator", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+          @Parameter(name = "table_name", value = "ID_GENERATORS"),
+          @Parameter(name = "segment_value", value = "USERS"),
+          @Parameter(name = "increment_size", value = "50"),
+          @Parameter(name = "optimizer", value = "pooled-lo")
+  })
   private Long id;
 
   @NonNull
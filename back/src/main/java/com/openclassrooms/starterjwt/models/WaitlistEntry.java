@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * A user waiting for a seat in a full session. Entries are served in id order.
+ */
+@Entity
+@Table(name = "WAITLIST", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"session_id", "user_id"})
+}, indexes = {
+        @Index(name = "idx_waitlist_session_id", columnList = "session_id, id")
+})
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class BulkEnrolmentRequest {
+  /**
+   * User ids when enrolling a group in one session, session ids when enrolling one user in many sessions.
+   */
+  @NotEmpty
+  @Size(max = 500)
+  private List<@NotNull Long> ids;
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+@Data
+public class RefreshTokenRequest {
+    @NotBlank
+    private String refreshToken;
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset position in the session listing, ordered by (date, id).
+ * The token keeps nanosecond precision so that rows sharing a date are never skipped nor repeated.
+ */
+@Getter
+@AllArgsConstructor
+public class SessionCursor {
+  private static final String SEPARATOR = ":";
+
+  private final Date date;
+
+  private final Long id;
+
+  public static SessionCursor of(SessionDto session) {
+    return new SessionCursor(session.getDate(), session.getId());
+  }
+
+  public String encode() {
+    Instant instant = date.toInstant();
+    String raw = instant.getEpochSecond() + SEPARATOR + instant.getNano() + SEPARATOR + id;
+
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+   */
+  public static SessionCursor decode(String token) {
+    String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    String[] parts = raw.split(SEPARATOR);
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Malformed session cursor");
+    }
+
+    Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+
+    return new SessionCursor(Timestamp.from(instant), Long.valueOf(parts[2]));
+  }
+}
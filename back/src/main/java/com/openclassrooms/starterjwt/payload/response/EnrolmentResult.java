@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EnrolmentResult {
+  private Long sessionId;
+
+  private Long userId;
+
+  private Status status;
+
+  public enum Status {
+    ENROLLED,
+    ALREADY_PARTICIPATING,
+    SESSION_FULL,
+    SESSION_NOT_FOUND,
+    USER_NOT_FOUND
+  }
+}
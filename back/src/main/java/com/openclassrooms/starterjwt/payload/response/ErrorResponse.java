@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"status", "error", "message", "path"})
+public class ErrorResponse {
+  private final int status;
+
+  private final String error;
+
+  private final String message;
+
+  private final String path;
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class SessionPageResponse {
+  private List<SessionDto> items;
+
+  /**
+   * Token to pass as {@code cursor} to fetch the following page, {@code null} on the last page.
+   */
+  private String nextCursor;
+}
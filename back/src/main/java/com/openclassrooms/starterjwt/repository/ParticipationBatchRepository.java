@@ -0,0 +1,49 @@
+package com.openclassrooms.starterjwt.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes PARTICIPATE rows through JDBC batching, which Spring Data repositories cannot do for native inserts.
+ */
+@Repository
+public class ParticipationBatchRepository {
+    private static final String INSERT_MISSING = "INSERT INTO PARTICIPATE (session_id, user_id) " +
+            "SELECT s.id, ? FROM SESSIONS s WHERE s.id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM PARTICIPATE p WHERE p.session_id = s.id AND p.user_id = ?) " +
+            "AND (s.capacity IS NULL OR s.capacity > (SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = s.id))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ParticipationBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the given (session id, user id) pairs in one batch, skipping pairs that already exist and pairs whose
+     * session is already full.
+     *
+     * @return the update count of each pair, 0 when it was already there or the session is full
+     */
+    public int[] insertMissing(List<long[]> pairs) {
+        return this.jdbcTemplate.batchUpdate(INSERT_MISSING, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long[] pair = pairs.get(i);
+                ps.setLong(1, pair[1]);
+                ps.setLong(2, pair[0]);
+                ps.setLong(3, pair[1]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return pairs.size();
+            }
+        });
+    }
+}
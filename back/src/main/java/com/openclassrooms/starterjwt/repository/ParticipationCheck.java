@@ -0,0 +1,10 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * A user or session referenced by a bulk enrolment, with whether the pair is already in PARTICIPATE.
+ */
+public interface ParticipationCheck {
+    Long getId();
+
+    Long getParticipating();
+}
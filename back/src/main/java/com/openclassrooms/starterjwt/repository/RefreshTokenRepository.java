@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    /**
+     * Replaces the current token of a family, only if it is still the one presented: of two concurrent
+     * rotations with the same token, one sees no updated row.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefreshToken t SET t.tokenHash = :nextHash, t.expiresAt = :expiresAt " +
+            "WHERE t.familyId = :familyId AND t.tokenHash = :currentHash")
+    int rotate(@Param("familyId") String familyId,
+               @Param("currentHash") String currentHash,
+               @Param("nextHash") String nextHash,
+               @Param("expiresAt") Instant expiresAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM RefreshToken t WHERE t.familyId = :familyId")
+    int revoke(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.userId = :userId")
+    int revokeAllByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
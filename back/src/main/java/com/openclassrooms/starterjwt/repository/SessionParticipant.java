@@ -0,0 +1,10 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * One PARTICIPATE row, read without hydrating the session nor the user.
+ */
+public interface SessionParticipant {
+    Long getSessionId();
+
+    Long getUserId();
+}
@@ -0,0 +1,10 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * Number of rows in PARTICIPATE for one session.
+ */
+public interface SessionParticipantCount {
+    Long getSessionId();
+
+    Long getParticipantCount();
+}
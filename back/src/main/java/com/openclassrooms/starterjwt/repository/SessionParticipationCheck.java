@@ -0,0 +1,5 @@
+package com.openclassrooms.starterjwt.repository;
+
+public interface SessionParticipationCheck extends ParticipationCheck {
+    Integer getCapacity();
+}
@@ -1,9 +1,75 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    /**
+     * Summary columns of a session, read straight into its DTO: no entity is loaded, nor the teacher it references.
+     */
+    String SUMMARY = "SELECT new com.openclassrooms.starterjwt.dto.SessionDto(s.id, s.name, s.date, s.teacher.id, s.description, " +
+            "s.capacity, s.createdAt, s.updatedAt) FROM Session s ";
+
+    @Query(SUMMARY + "ORDER BY s.date ASC, s.id ASC")
+    List<SessionDto> findAllSummaries();
+
+    @Query(SUMMARY + "ORDER BY s.date ASC, s.id ASC")
+    List<SessionDto> findFirstPage(Pageable pageable);
+
+    @Query(SUMMARY + "WHERE s.date > :date OR (s.date = :date AND s.id > :id) ORDER BY s.date ASC, s.id ASC")
+    List<SessionDto> findPageAfter(@Param("date") Date date, @Param("id") Long id, Pageable pageable);
+
+    @Query(value = "SELECT p.session_id AS sessionId, COUNT(*) AS participantCount FROM PARTICIPATE p " +
+            "WHERE p.session_id IN (:sessionIds) GROUP BY p.session_id", nativeQuery = true)
+    List<SessionParticipantCount> countParticipants(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Query(value = "SELECT p.session_id AS sessionId, COUNT(*) AS participantCount FROM PARTICIPATE p " +
+            "GROUP BY p.session_id", nativeQuery = true)
+    List<SessionParticipantCount> countAllParticipants();
+
+    @Query(value = "SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = :sessionId", nativeQuery = true)
+    long countParticipants(@Param("sessionId") Long sessionId);
+
+    @Query(value = "SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = :sessionId AND p.user_id = :userId", nativeQuery = true)
+    long countParticipation(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Query(value = "SELECT p.session_id AS sessionId, p.user_id AS userId FROM PARTICIPATE p " +
+            "WHERE p.session_id IN (:sessionIds) ORDER BY p.session_id, p.user_id", nativeQuery = true)
+    List<SessionParticipant> findParticipants(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Query(value = "SELECT u.id AS id, (SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = :sessionId AND p.user_id = u.id) AS participating " +
+            "FROM USERS u WHERE u.id IN (:userIds)", nativeQuery = true)
+    List<ParticipationCheck> checkUsers(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    @Query(value = "SELECT s.id AS id, s.capacity AS capacity, (SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = s.id AND p.user_id = :userId) AS participating " +
+            "FROM SESSIONS s WHERE s.id IN (:sessionIds)", nativeQuery = true)
+    List<SessionParticipationCheck> checkSessions(@Param("userId") Long userId, @Param("sessionIds") Collection<Long> sessionIds);
+
+    /**
+     * Inserts a single PARTICIPATE row, unless the session already has as many participants as its capacity;
+     * a duplicate violates the (session_id, user_id) unique key. The capacity is checked by the insert itself, so that
+     * the seat counters of every node are backed by PARTICIPATE without locking the session.
+     *
+     * @return 0 when the session is full
+     */
+    @Modifying
+    @Query(value = "INSERT INTO PARTICIPATE (session_id, user_id) SELECT s.id, :userId FROM SESSIONS s " +
+            "WHERE s.id = :sessionId AND (s.capacity IS NULL OR s.capacity > " +
+            "(SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = s.id))", nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
 }
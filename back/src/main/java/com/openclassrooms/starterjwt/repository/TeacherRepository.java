@@ -1,9 +1,17 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.models.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface TeacherRepository  extends JpaRepository<Teacher, Long> {
+
+    @Query("SELECT new com.openclassrooms.starterjwt.dto.TeacherDto(t.id, t.lastName, t.firstName, t.createdAt, t.updatedAt) " +
+            "FROM Teacher t ORDER BY t.id")
+    List<TeacherDto> findAllDtos();
 }
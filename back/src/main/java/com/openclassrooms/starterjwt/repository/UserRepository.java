@@ -3,7 +3,11 @@ package com.openclassrooms.starterjwt.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.openclassrooms.starterjwt.models.User;
 
@@ -12,4 +16,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
 
   Boolean existsByEmail(String email); 
+
+  /**
+   * Replaces the password hash of a user, only if it is still the one given: a password changed in the meantime
+   * is never overwritten.
+   */
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :currentHash")
+  int updatePasswordHash(@Param("id") Long id,
+                         @Param("currentHash") String currentHash,
+                         @Param("newHash") String newHash);
 }
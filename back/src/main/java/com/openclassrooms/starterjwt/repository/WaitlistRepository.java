@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    Optional<WaitlistEntry> findFirstBySessionIdOrderByIdAsc(Long sessionId);
+
+    boolean existsBySessionIdAndUserId(Long sessionId, Long userId);
+
+    /**
+     * Appends the user to the waitlist of the session without going through the persistence context, so that a
+     * refused insert leaves nothing behind to flush.
+     *
+     * @return 0 when the user is already waiting
+     */
+    @Modifying
+    @Query(value = "INSERT INTO WAITLIST (session_id, user_id) SELECT s.id, :userId FROM SESSIONS s " +
+            "WHERE s.id = :sessionId AND NOT EXISTS " +
+            "(SELECT 1 FROM WAITLIST w WHERE w.session_id = s.id AND w.user_id = :userId)", nativeQuery = true)
+    int addEntry(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * Claims an entry: only one of several concurrent promoters sees a deleted row.
+     */
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.id = :id")
+    int claim(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.sessionId = :sessionId AND w.userId = :userId")
+    int removeEntry(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+}
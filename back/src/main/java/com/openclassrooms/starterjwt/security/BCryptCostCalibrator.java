@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt strength for the hardware the application runs on: the highest one whose hash still takes at
+ * most the target duration. Each strength doubles the work, so a single measurement at the minimum strength is
+ * enough to extrapolate the others.
+ */
+public final class BCryptCostCalibrator {
+  private static final Logger logger = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+  private static final int SAMPLES = 5;
+
+  private BCryptCostCalibrator() {
+  }
+
+  public static int calibrate(Duration target, int minStrength, int maxStrength) {
+    if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+      throw new IllegalArgumentException("BCrypt strengths must satisfy 4 <= minStrength <= maxStrength <= 31");
+    }
+
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+    // Warm up, then keep the median so that a single descheduled run does not skew the result
+    encoder.encode("calibration");
+    long[] samples = new long[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      encoder.encode("calibration");
+      samples[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(samples);
+
+    int strength = strengthFor(samples[SAMPLES / 2], target, minStrength, maxStrength);
+    logger.info("BCrypt strength {} selected: {} ms per hash at strength {}, target {} ms", strength,
+        samples[SAMPLES / 2] / 1000000, minStrength, target.toMillis());
+
+    return strength;
+  }
+
+  /**
+   * The highest strength in [minStrength, maxStrength] expected to hash within the target, given the measured
+   * time at minStrength. Never below minStrength, even on hardware too slow to meet the target.
+   */
+  public static int strengthFor(long nanosAtMinStrength, Duration target, int minStrength, int maxStrength) {
+    int strength = minStrength;
+    long nanos = nanosAtMinStrength;
+    while (strength < maxStrength && nanos * 2 <= target.toNanos()) {
+      nanos *= 2;
+      strength++;
+    }
+
+    return strength;
+  }
+}
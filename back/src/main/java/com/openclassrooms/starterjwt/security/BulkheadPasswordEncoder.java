@@ -0,0 +1,94 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs the hashing of a delegate encoder on a dedicated bounded pool.
+ * <p>
+ * The request thread still waits for the result, but at most {@code poolSize} hashes use the CPU at once and at
+ * most {@code queueCapacity} requests wait for one: a login storm is answered with 503 and a {@code Retry-After}
+ * header instead of pinning every request thread. Published metrics:
+ * {@code auth.password.hashing{operation=encode|matches}}, {@code auth.password.queue.depth},
+ * {@code auth.password.active} and {@code auth.password.rejected}.
+ */
+public class BulkheadPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+
+  private final ThreadPoolTaskExecutor executor;
+
+  private final long retryAfterSeconds;
+
+  private final Timer encodeTimer;
+
+  private final Timer matchesTimer;
+
+  private final Counter rejected;
+
+  public BulkheadPasswordEncoder(PasswordEncoder delegate, ThreadPoolTaskExecutor executor,
+                                 MeterRegistry meterRegistry, long retryAfterSeconds) {
+    this.delegate = delegate;
+    this.executor = executor;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.encodeTimer = Timer.builder("auth.password.hashing").tag("operation", "encode").register(meterRegistry);
+    this.matchesTimer = Timer.builder("auth.password.hashing").tag("operation", "matches").register(meterRegistry);
+    this.rejected = Counter.builder("auth.password.rejected").register(meterRegistry);
+    Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getThreadPoolExecutor().getQueue().size())
+        .register(meterRegistry);
+    Gauge.builder("auth.password.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(() -> delegate.encode(rawPassword), encodeTimer);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private <T> T run(Supplier<T> hashing, Timer timer) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> timer.record(hashing));
+    } catch (TaskRejectedException e) {
+      rejected.increment();
+      throw new ServiceUnavailableException(retryAfterSeconds);
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException(retryAfterSeconds);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rate limits login attempts per client address and per submitted email, before any password is hashed.
+ * <p>
+ * The client address is {@link HttpServletRequest#getRemoteAddr()}: behind a reverse proxy, set
+ * {@code server.forward-headers-strategy} so that it is the client's rather than the proxy's. Rejected attempts
+ * get a 429 with {@code Retry-After} and are counted in {@code auth.login.rate_limited{key=ip|email}}. The body is
+ * buffered to read the email, so bodies larger than any login get a 413 instead of being read into memory.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+  private static final RateLimitedLogger logger =
+      new RateLimitedLogger(LoggerFactory.getLogger(LoginRateLimitFilter.class), 10, Duration.ofMinutes(1));
+
+  private static final String LOGIN_PATH = "/api/auth/login";
+
+  private static final int MAX_BODY_SIZE = 4 * 1024;
+
+  private final TokenBucketRateLimiter ipRateLimiter;
+
+  private final TokenBucketRateLimiter emailRateLimiter;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final ErrorResponseWriter errorResponseWriter;
+
+  private final Counter ipRejections;
+
+  private final Counter emailRejections;
+
+  public LoginRateLimitFilter(TokenBucketRateLimiter ipRateLimiter, TokenBucketRateLimiter emailRateLimiter,
+                              ErrorResponseWriter errorResponseWriter, MeterRegistry meterRegistry) {
+    this.ipRateLimiter = ipRateLimiter;
+    this.emailRateLimiter = emailRateLimiter;
+    this.errorResponseWriter = errorResponseWriter;
+    this.ipRejections = Counter.builder("auth.login.rate_limited").tag("key", "ip").register(meterRegistry);
+    this.emailRejections = Counter.builder("auth.login.rate_limited").tag("key", "email").register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !HttpMethod.POST.matches(request.getMethod()) || !LOGIN_PATH.equals(request.getServletPath());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long wait = ipRateLimiter.tryAcquire(request.getRemoteAddr());
+    if (wait > 0) {
+      ipRejections.increment();
+      reject(request, response, wait);
+      return;
+    }
+
+    byte[] body = readBody(request);
+    if (body == null) {
+      errorResponseWriter.write(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Login request too large");
+      return;
+    }
+
+    CachedBodyRequest cachedBodyRequest = new CachedBodyRequest(request, body);
+    String email = readEmail(cachedBodyRequest.body);
+    if (email != null) {
+      wait = emailRateLimiter.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+      if (wait > 0) {
+        emailRejections.increment();
+        reject(request, response, wait);
+        return;
+      }
+    }
+
+    filterChain.doFilter(cachedBodyRequest, response);
+  }
+
+  /**
+   * @return the body, or null when it is larger than {@link #MAX_BODY_SIZE}, read no further than that
+   */
+  private static byte[] readBody(HttpServletRequest request) throws IOException {
+    if (request.getContentLengthLong() > MAX_BODY_SIZE) {
+      return null;
+    }
+
+    // The declared length is missing on chunked bodies: stop reading one byte past the limit
+    InputStream input = request.getInputStream();
+    byte[] buffer = new byte[MAX_BODY_SIZE + 1];
+    int length = 0;
+    int read;
+    while (length < buffer.length && (read = input.read(buffer, length, buffer.length - length)) != -1) {
+      length += read;
+    }
+
+    return length > MAX_BODY_SIZE ? null : Arrays.copyOf(buffer, length);
+  }
+
+  private String readEmail(byte[] body) {
+    try {
+      JsonNode login = objectMapper.readTree(body);
+      JsonNode email = login != null ? login.path("email") : null;
+      return email != null && email.isTextual() ? email.asText() : null;
+    } catch (IOException e) {
+      // Left to the controller to reject
+      return null;
+    }
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+    logger.warn("Login attempt rate limited from {}", request.getRemoteAddr());
+
+    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+
+    errorResponseWriter.write(request, response, HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts");
+  }
+
+  /**
+   * Reads the body once, so that both this filter and the controller can consume it.
+   */
+  private static class CachedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+
+    CachedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream input = new ByteArrayInputStream(body);
+
+      return new ServletInputStream() {
+        @Override
+        public boolean isFinished() {
+          return input.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read() {
+          return input.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+          return input.read(buffer, offset, length);
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+
+      return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
+import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Filter chain of the routes that need no authenticated user: login, registration, token refresh and logout,
+ * which read their tokens from the request themselves, and the JWKS. Matched before the chain of
+ * {@link WebSecurityConfig}, it neither reads the Authorization header nor checks authorizations; the login alone
+ * goes through the rate limiter.
+ */
+@Configuration
+@Order(1)
+public class PublicWebSecurityConfig extends WebSecurityConfigurerAdapter {
+  public static final String[] PUBLIC_ROUTES = {"/api/auth/**", "/.well-known/jwks.json"};
+
+  @Autowired
+  private AuthEntryPointJwt unauthorizedHandler;
+
+  @Autowired
+  private ErrorResponseWriter errorResponseWriter;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${oc.app.loginRateLimit.ip.burst:20}")
+  private int loginRateLimitIpBurst;
+
+  @Value("${oc.app.loginRateLimit.ip.permitsPerMinute:30}")
+  private int loginRateLimitIpPermitsPerMinute;
+
+  @Value("${oc.app.loginRateLimit.email.burst:5}")
+  private int loginRateLimitEmailBurst;
+
+  @Value("${oc.app.loginRateLimit.email.permitsPerMinute:5}")
+  private int loginRateLimitEmailPermitsPerMinute;
+
+  @Value("${oc.app.loginRateLimit.maximumKeys:100000}")
+  private long loginRateLimitMaximumKeys;
+
+  @Bean
+  public LoginRateLimitFilter loginRateLimitFilter() {
+    return new LoginRateLimitFilter(
+        new TokenBucketRateLimiter(loginRateLimitIpBurst, loginRateLimitIpPermitsPerMinute, loginRateLimitMaximumKeys),
+        new TokenBucketRateLimiter(loginRateLimitEmailBurst, loginRateLimitEmailPermitsPerMinute, loginRateLimitMaximumKeys),
+        errorResponseWriter, meterRegistry);
+  }
+
+  /**
+   * Only added to the chain below, not to every request as a servlet filter.
+   */
+  @Bean
+  public FilterRegistrationBean<LoginRateLimitFilter> loginRateLimitFilterRegistration(LoginRateLimitFilter filter) {
+    FilterRegistrationBean<LoginRateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.setEnabled(false);
+
+    return registration;
+  }
+
+  @Override
+  protected void configure(HttpSecurity http) throws Exception {
+    http.requestMatchers().antMatchers(PUBLIC_ROUTES).and()
+      .cors().and().csrf().disable()
+      // Authentication failures of the login are still answered by the entry point
+      .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
+      .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
+      .requestCache().disable()
+      .logout().disable();
+
+    http.addFilterBefore(loginRateLimitFilter(), UsernamePasswordAuthenticationFilter.class);
+  }
+}
@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+
+/**
+ * Lets at most {@code permitsPerInterval} lines through per interval and drops the rest, so that a client flooding
+ * the application with bad requests cannot flood the logs too. The lines written are a sample of what happened:
+ * the first line of the next interval tells how many were dropped.
+ */
+public class RateLimitedLogger {
+  private final Logger logger;
+
+  private final int permitsPerInterval;
+
+  private final long intervalNanos;
+
+  private final LongSupplier nanoClock;
+
+  private final AtomicLong intervalStart;
+
+  private final AtomicInteger used = new AtomicInteger();
+
+  private final LongAdder suppressed = new LongAdder();
+
+  public RateLimitedLogger(Logger logger, int permitsPerInterval, Duration interval) {
+    this(logger, permitsPerInterval, interval, System::nanoTime);
+  }
+
+  public RateLimitedLogger(Logger logger, int permitsPerInterval, Duration interval, LongSupplier nanoClock) {
+    this.logger = logger;
+    this.permitsPerInterval = permitsPerInterval;
+    this.intervalNanos = interval.toNanos();
+    this.nanoClock = nanoClock;
+    this.intervalStart = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  public void warn(String format, Object... arguments) {
+    if (logger.isWarnEnabled() && tryAcquire()) {
+      logger.warn(format, arguments);
+    }
+  }
+
+  public void info(String format, Object... arguments) {
+    if (logger.isInfoEnabled() && tryAcquire()) {
+      logger.info(format, arguments);
+    }
+  }
+
+  private boolean tryAcquire() {
+    long now = nanoClock.getAsLong();
+    long start = intervalStart.get();
+    if (now - start >= intervalNanos && intervalStart.compareAndSet(start, now)) {
+      // A line racing with the reset may count against either interval, which is fine for a sample
+      used.set(0);
+      long dropped = suppressed.sumThenReset();
+      if (dropped > 0) {
+        logger.warn("{} similar log lines suppressed in the last {} s", dropped, (now - start) / 1000000000L);
+      }
+    }
+
+    if (used.incrementAndGet() <= permitsPerInterval) {
+      return true;
+    }
+    suppressed.increment();
+    return false;
+  }
+}
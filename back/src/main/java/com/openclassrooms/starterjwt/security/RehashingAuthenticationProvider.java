@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.starterjwt.security.services.PasswordUpgrader;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+/**
+ * Authenticates against the user details like {@link DaoAuthenticationProvider}, then hands hashes made with an
+ * outdated BCrypt strength to the {@link PasswordUpgrader}. Unlike the built-in
+ * {@code UserDetailsPasswordService} support, the new hash is computed after the response, not before it.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+  private final PasswordUpgrader passwordUpgrader;
+
+  public RehashingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                         PasswordUpgrader passwordUpgrader) {
+    setUserDetailsService(userDetailsService);
+    setPasswordEncoder(passwordEncoder);
+    this.passwordUpgrader = passwordUpgrader;
+  }
+
+  @Override
+  protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                       UserDetails user) {
+    if (user instanceof UserDetailsImpl && authentication.getCredentials() != null
+        && passwordUpgrader.needsUpgrade(user.getPassword())) {
+      passwordUpgrader.upgrade((UserDetailsImpl) user, authentication.getCredentials().toString());
+    }
+
+    return super.createSuccessAuthentication(principal, authentication, user);
+  }
+}
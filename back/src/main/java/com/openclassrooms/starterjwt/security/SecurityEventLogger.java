@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Logs the token and authentication failures of the security layer with bounded I/O, whatever their rate: each
+ * kind of failure is counted, a few detailed lines per kind and interval are written as samples, and one summary
+ * line per interval gives the counts of every kind seen. A wave of expired tokens after a release then costs a
+ * counter increment per request instead of a synchronous log line.
+ * <p>
+ * Counts are also published as {@code auth.security.events{kind}}.
+ */
+@Component
+public class SecurityEventLogger {
+  public enum Kind {
+    INVALID_SIGNATURE,
+    MALFORMED_TOKEN,
+    EXPIRED_TOKEN,
+    PREMATURE_TOKEN,
+    UNSUPPORTED_TOKEN,
+    EMPTY_TOKEN,
+    REVOKED_TOKEN,
+    AUTHENTICATION_FAILED;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+  }
+
+  private final Logger logger;
+
+  private final Map<Kind, LongAdder> counts = new EnumMap<>(Kind.class);
+
+  private final Map<Kind, Counter> counters = new EnumMap<>(Kind.class);
+
+  private final Map<Kind, RateLimitedLogger> samplers = new EnumMap<>(Kind.class);
+
+  private volatile long lastSummary = System.nanoTime();
+
+  @Autowired
+  public SecurityEventLogger(MeterRegistry meterRegistry,
+                             @Value("${oc.app.securityLog.samplesPerInterval:5}") int samplesPerInterval,
+                             @Value("${oc.app.securityLog.intervalMs:60000}") long intervalMs) {
+    this(LoggerFactory.getLogger(SecurityEventLogger.class), meterRegistry, samplesPerInterval, Duration.ofMillis(intervalMs));
+  }
+
+  public SecurityEventLogger(Logger logger, MeterRegistry meterRegistry, int samplesPerInterval, Duration interval) {
+    this.logger = logger;
+    for (Kind kind : Kind.values()) {
+      counts.put(kind, new LongAdder());
+      counters.put(kind, Counter.builder("auth.security.events").tag("kind", kind.tag).register(meterRegistry));
+      samplers.put(kind, new RateLimitedLogger(logger, samplesPerInterval, interval));
+    }
+  }
+
+  public void record(Kind kind, String detail) {
+    count(kind);
+    samplers.get(kind).warn("{}: {}", kind.tag, detail);
+  }
+
+  /**
+   * Same as {@link #record(Kind, String)}, with the stack trace of the cause in the sampled lines.
+   */
+  public void record(Kind kind, Throwable cause) {
+    count(kind);
+    samplers.get(kind).warn("{}: {}", kind.tag, cause.getMessage(), cause);
+  }
+
+  /**
+   * Writes the counts of the interval, if anything was recorded.
+   */
+  @Scheduled(fixedRateString = "${oc.app.securityLog.intervalMs:60000}", initialDelayString = "${oc.app.securityLog.intervalMs:60000}")
+  public void summarize() {
+    long now = System.nanoTime();
+    StringBuilder summary = new StringBuilder();
+    for (Map.Entry<Kind, LongAdder> entry : counts.entrySet()) {
+      long count = entry.getValue().sumThenReset();
+      if (count > 0) {
+        summary.append(summary.length() == 0 ? "" : ", ").append(entry.getKey().tag).append('=').append(count);
+      }
+    }
+
+    if (summary.length() > 0) {
+      logger.warn("Security events in the last {} s: {}", Duration.ofNanos(now - lastSummary).getSeconds(), summary);
+    }
+    lastSummary = now;
+  }
+
+  private void count(Kind kind) {
+    counts.get(kind).increment();
+    counters.get(kind).increment();
+  }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * One token bucket per key, refilled at {@code permitsPerMinute} up to {@code burst} tokens.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding the time at which it will be full again (the generic cell rate
+ * algorithm), updated with a compare-and-set: concurrent requests never block each other, even on the same key.
+ * Buckets are held in a bounded cache and dropped once idle long enough to be full, which loses nothing.
+ */
+public class TokenBucketRateLimiter {
+  private final long intervalNanos;
+
+  private final long toleranceNanos;
+
+  private final Cache<String, AtomicLong> buckets;
+
+  private final LongSupplier nanoClock;
+
+  public TokenBucketRateLimiter(int burst, int permitsPerMinute, long maximumKeys) {
+    this(burst, permitsPerMinute, maximumKeys, System::nanoTime);
+  }
+
+  public TokenBucketRateLimiter(int burst, int permitsPerMinute, long maximumKeys, LongSupplier nanoClock) {
+    if (burst <= 0 || permitsPerMinute <= 0) {
+      throw new IllegalArgumentException("burst and permitsPerMinute must be positive");
+    }
+
+    this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+    this.toleranceNanos = (burst - 1) * intervalNanos;
+    this.nanoClock = nanoClock;
+    this.buckets = Caffeine.newBuilder()
+        .maximumSize(maximumKeys)
+        .expireAfterAccess(Duration.ofNanos(burst * intervalNanos))
+        .build();
+  }
+
+  /**
+   * Takes a token from the bucket of a key.
+   *
+   * @return zero when a token was taken, otherwise the nanoseconds until the next one
+   */
+  public long tryAcquire(String key) {
+    AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(nanoClock.getAsLong()));
+
+    while (true) {
+      long now = nanoClock.getAsLong();
+      long current = fullAt.get();
+      long wait = current - now - toleranceNanos;
+      if (wait > 0) {
+        return wait;
+      }
+
+      long next = (current - now < 0 ? now : current) + intervalNanos;
+      if (fullAt.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+}
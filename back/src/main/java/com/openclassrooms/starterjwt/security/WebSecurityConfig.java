@@ -1,6 +1,11 @@
 package com.openclassrooms.starterjwt.security;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,14 +15,20 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.services.PasswordUpgrader;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCacheEvictor;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(
@@ -31,14 +42,59 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Autowired
+  @Qualifier("passwordHashingExecutor")
+  private ThreadPoolTaskExecutor passwordHashingExecutor;
+
+  @Autowired
+  @Qualifier("passwordUpgradeExecutor")
+  private ThreadPoolTaskExecutor passwordUpgradeExecutor;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserDetailsCacheEvictor userDetailsCacheEvictor;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${oc.app.passwordHashing.retryAfterSeconds:1}")
+  private long passwordHashingRetryAfterSeconds;
+
+  @Value("${oc.app.passwordHashing.strength:0}")
+  private int passwordHashingStrength;
+
+  @Value("${oc.app.passwordHashing.targetDuration:250ms}")
+  private Duration passwordHashingTargetDuration;
+
+  @Value("${oc.app.passwordHashing.minStrength:10}")
+  private int passwordHashingMinStrength;
+
+  @Value("${oc.app.passwordHashing.maxStrength:14}")
+  private int passwordHashingMaxStrength;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
   }
 
+  /**
+   * Only added to the chain below: registered by Spring Boot as a servlet filter, it would also parse the JWT of
+   * the requests {@link PublicWebSecurityConfig} lets through.
+   */
+  @Bean
+  public FilterRegistrationBean<AuthTokenFilter> authenticationJwtTokenFilterRegistration(AuthTokenFilter filter) {
+    FilterRegistrationBean<AuthTokenFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.setEnabled(false);
+
+    return registration;
+  }
+
   @Override
   public void configure(AuthenticationManagerBuilder authenticationManagerBuilder) throws Exception {
-    authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+    authenticationManagerBuilder.authenticationProvider(
+        new RehashingAuthenticationProvider(userDetailsService, passwordEncoder(), passwordUpgrader()));
   }
 
   @Bean
@@ -47,18 +103,34 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     return super.authenticationManagerBean();
   }
 
+  /**
+   * BCrypt with the strength set by {@code oc.app.passwordHashing.strength}, or else calibrated at startup to
+   * {@code oc.app.passwordHashing.targetDuration} per hash, within [minStrength, maxStrength].
+   */
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int strength = passwordHashingStrength > 0 ? passwordHashingStrength
+        : BCryptCostCalibrator.calibrate(passwordHashingTargetDuration, passwordHashingMinStrength, passwordHashingMaxStrength);
+
+    return new BulkheadPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashingExecutor, meterRegistry,
+        passwordHashingRetryAfterSeconds);
+  }
+
+  @Bean
+  public PasswordUpgrader passwordUpgrader() {
+    return new PasswordUpgrader(passwordEncoder(), userRepository, userDetailsCacheEvictor, passwordUpgradeExecutor,
+        meterRegistry);
   }
 
+  /**
+   * Every route but the public ones of {@link PublicWebSecurityConfig}: the JWT of each request is verified.
+   */
   @Override
   protected void configure(HttpSecurity http) throws Exception {
     http.cors().and().csrf().disable()
       .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
       .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
-      .authorizeRequests().antMatchers("/api/auth/**").permitAll()
-      .antMatchers("/api/**").authenticated()
+      .authorizeRequests().antMatchers("/api/**").authenticated()
       .anyRequest().authenticated();
 
     http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
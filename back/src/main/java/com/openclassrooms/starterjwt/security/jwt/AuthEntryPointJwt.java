@@ -1,43 +1,40 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
+import com.openclassrooms.starterjwt.security.RateLimitedLogger;
 
 @Component
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
+  // An unauthorized request is a client error; a scanner sending bad tokens must not flood the logs
+  private static final RateLimitedLogger logger =
+      new RateLimitedLogger(LoggerFactory.getLogger(AuthEntryPointJwt.class), 10, Duration.ofMinutes(1));
+
+  private final ErrorResponseWriter errorResponseWriter;
+
+  public AuthEntryPointJwt(ErrorResponseWriter errorResponseWriter) {
+    this.errorResponseWriter = errorResponseWriter;
+  }
 
   @Override
   public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
       throws IOException, ServletException {
-    logger.error("Unauthorized error: {}", authException.getMessage());
-
-    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-
-    final Map<String, Object> body = new HashMap<>();
-    body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-    body.put("error", "Unauthorized");
-    body.put("message", authException.getMessage());
-    body.put("path", request.getServletPath());
+    logger.warn("Unauthorized error: {}", authException.getMessage());
 
-    final ObjectMapper mapper = new ObjectMapper();
-    mapper.writeValue(response.getOutputStream(), body);
+    errorResponseWriter.write(request, response, HttpStatus.UNAUTHORIZED, authException.getMessage());
   }
 
 }
@@ -7,9 +7,8 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,8 +16,12 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.starterjwt.security.SecurityEventLogger;
+import com.openclassrooms.starterjwt.security.SecurityEventLogger.Kind;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
@@ -26,17 +29,33 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+  @Autowired
+  private JwtRevocationList jwtRevocationList;
+
+  @Autowired
+  private SecurityEventLogger securityEventLogger;
+
+  /**
+   * When set, the user is rebuilt from the token claims instead of being loaded from the database on every request.
+   * Changes to a user (deletion, admin flag) are then only seen by tokens issued afterwards.
+   */
+  @Value("${oc.app.jwtClaimsAuthentication:false}")
+  private boolean claimsAuthentication;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+      Claims claims = jwt != null ? jwtUtils.parseJwtClaims(jwt) : null;
+      if (claims != null && jwtRevocationList.isRevoked(claims)) {
+        securityEventLogger.record(Kind.REVOKED_TOKEN, claims.getId());
+      } else if (claims != null) {
+        UserDetails userDetails = claimsAuthentication ? jwtUtils.getUserDetailsFromJwtClaims(claims) : null;
+        if (userDetails == null) {
+          userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -47,7 +66,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authentication);
       }
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      securityEventLogger.record(Kind.AUTHENTICATION_FAILED, e);
     }
 
     filterChain.doFilter(request, response);
@@ -0,0 +1,87 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter of strings: {@link #mightContain} never misses an added key and wrongly matches
+ * about {@code falsePositiveRate} of the others once {@code expectedInsertions} keys are added.
+ * <p>
+ * Reads are lock-free; concurrent adds are safe. Keys cannot be removed, so callers rebuild the filter
+ * to drop them.
+ */
+public final class BloomFilter {
+  private final AtomicLongArray bits;
+
+  private final long bitCount;
+
+  private final int hashCount;
+
+  public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("expectedInsertions must be positive and falsePositiveRate in ]0, 1[");
+    }
+
+    long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+    this.bitCount = bits.length() * 64L;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+  }
+
+  public void put(String key) {
+    long hash1 = hash(key);
+    long hash2 = mix(hash1);
+    for (int i = 0; i < hashCount; i++) {
+      long index = index(hash1 + i * hash2);
+      int word = (int) (index >>> 6);
+      long mask = 1L << index;
+      long current;
+      do {
+        current = bits.get(word);
+      } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+    }
+  }
+
+  public boolean mightContain(String key) {
+    long hash1 = hash(key);
+    long hash2 = mix(hash1);
+    for (int i = 0; i < hashCount; i++) {
+      long index = index(hash1 + i * hash2);
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private long index(long combinedHash) {
+    return (combinedHash & Long.MAX_VALUE) % bitCount;
+  }
+
+  /**
+   * 64-bit FNV-1a of the UTF-8 bytes, finalised with {@link #mix} for a better spread of the low bits.
+   */
+  private static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+
+    return mix(hash);
+  }
+
+  /**
+   * The MurmurHash3 64-bit finaliser.
+   */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb93fe53ec34fL;
+    value ^= value >>> 33;
+
+    return value;
+  }
+}
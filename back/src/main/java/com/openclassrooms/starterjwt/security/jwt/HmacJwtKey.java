@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * HS512 shared secret. Each thread reuses its own initialized {@link Mac}.
+ */
+public class HmacJwtKey extends JwtKey {
+  public static final String ALGORITHM = "HS512";
+  private static final String MAC_ALGORITHM = "HmacSHA512";
+
+  private final ThreadLocal<Mac> macs;
+
+  public HmacJwtKey(byte[] secret) {
+    super(null, ALGORITHM);
+    SecretKeySpec secretKey = new SecretKeySpec(secret, MAC_ALGORITHM);
+    this.macs = ThreadLocal.withInitial(() -> {
+      try {
+        Mac mac = Mac.getInstance(MAC_ALGORITHM);
+        mac.init(secretKey);
+        return mac;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException("Cannot initialize " + MAC_ALGORITHM, e);
+      }
+    });
+    this.macs.get();
+  }
+
+  @Override
+  public boolean canSign() {
+    return true;
+  }
+
+  @Override
+  public byte[] sign(byte[] signingInput) {
+    return macs.get().doFinal(signingInput);
+  }
+
+  @Override
+  public boolean verify(byte[] signingInput, byte[] signature) {
+    return MessageDigest.isEqual(sign(signingInput), signature);
+  }
+}
@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.impl.DefaultClaims;
+
+/**
+ * Signing and verification of compact JWS tokens, interoperable with the tokens jjwt issues.
+ * <p>
+ * Keys are derived once and supplied by a {@link JwtKeyResolver}, where jjwt builds a parser and a key per call.
+ * A token is verified and its claims extracted in a single pass over its three segments.
+ * Failures are reported with the jjwt exception types, so that callers handle both paths alike.
+ */
+public class JwtEngine {
+  private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<Map<String, Object>>() {};
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final JwtKeyResolver keyResolver;
+
+  public JwtEngine(JwtKeyResolver keyResolver) {
+    this.keyResolver = keyResolver;
+  }
+
+  public String sign(Map<String, Object> claims) {
+    JwtKey key = keyResolver.signingKey();
+    try {
+      String signingInput = key.getEncodedHeader() + '.' + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+
+      return signingInput + '.' + ENCODER.encodeToString(key.sign(signingInput.getBytes(StandardCharsets.US_ASCII)));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Cannot serialize JWT claims", e);
+    }
+  }
+
+  /**
+   * Checks the signature and the validity period of a token.
+   *
+   * @return the verified claims
+   * @throws IllegalArgumentException when the token is empty
+   */
+  public Claims verify(String token) {
+    if (token == null || token.isEmpty()) {
+      throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+    }
+
+    int firstDot = token.indexOf('.');
+    int lastDot = token.lastIndexOf('.');
+    if (firstDot < 0 || firstDot == lastDot || token.indexOf('.', firstDot + 1) != lastDot) {
+      throw new MalformedJwtException("JWT strings must contain exactly 2 period characters.");
+    }
+
+    Map<String, Object> header = readJson(token.substring(0, firstDot));
+    Object algorithm = header.get("alg");
+    if (!HmacJwtKey.ALGORITHM.equals(algorithm) && !RsaJwtKey.ALGORITHM.equals(algorithm)) {
+      throw new UnsupportedJwtException("Unsupported JWT algorithm: " + algorithm);
+    }
+
+    Object kid = header.get("kid");
+    JwtKey key = keyResolver.verificationKey((String) algorithm, kid instanceof String ? (String) kid : null);
+    if (key == null) {
+      throw new SignatureException("No " + algorithm + " verification key with id " + kid);
+    }
+
+    byte[] signature = decode(token.substring(lastDot + 1));
+    if (!key.verify(token.substring(0, lastDot).getBytes(StandardCharsets.US_ASCII), signature)) {
+      throw new SignatureException("JWT signature does not match locally computed signature.");
+    }
+
+    Claims claims = new DefaultClaims(readJson(token.substring(firstDot + 1, lastDot)));
+    Date now = new Date();
+    Date expiration = claims.getExpiration();
+    if (expiration != null && now.after(expiration)) {
+      throw new ExpiredJwtException(null, claims, "JWT expired at " + expiration);
+    }
+    Date notBefore = claims.getNotBefore();
+    if (notBefore != null && now.before(notBefore)) {
+      throw new PrematureJwtException(null, claims, "JWT must not be accepted before " + notBefore);
+    }
+
+    return claims;
+  }
+
+  private Map<String, Object> readJson(String segment) {
+    try {
+      return objectMapper.readValue(decode(segment), JSON_OBJECT);
+    } catch (IOException e) {
+      throw new MalformedJwtException("Unable to read JSON value: " + e.getMessage(), e);
+    }
+  }
+
+  private static byte[] decode(String segment) {
+    try {
+      return DECODER.decode(segment);
+    } catch (IllegalArgumentException e) {
+      throw new MalformedJwtException("Invalid Base64url segment: " + e.getMessage(), e);
+    }
+  }
+}
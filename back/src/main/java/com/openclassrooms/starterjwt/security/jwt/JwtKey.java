@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A key able to verify, and possibly produce, the signature of compact JWS tokens for one algorithm.
+ */
+public abstract class JwtKey {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final String kid;
+
+  private final String algorithm;
+
+  private final String encodedHeader;
+
+  protected JwtKey(String kid, String algorithm) {
+    this.kid = kid;
+    this.algorithm = algorithm;
+
+    Map<String, Object> header = new LinkedHashMap<>();
+    header.put("alg", algorithm);
+    if (kid != null) {
+      header.put("kid", kid);
+    }
+    try {
+      this.encodedHeader = Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(header));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize JWT header", e);
+    }
+  }
+
+  public String getKid() {
+    return kid;
+  }
+
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * The base64url encoded JOSE header of tokens signed with this key.
+   */
+  public String getEncodedHeader() {
+    return encodedHeader;
+  }
+
+  public abstract boolean canSign();
+
+  public abstract byte[] sign(byte[] signingInput);
+
+  public abstract boolean verify(byte[] signingInput, byte[] signature);
+
+  protected static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,259 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.models.JwtSigningKey;
+import com.openclassrooms.starterjwt.repository.JwtSigningKeyRepository;
+
+import io.jsonwebtoken.impl.TextCodec;
+
+/**
+ * RS256 keys shared by every node through JWT_SIGNING_KEYS, rotated on a schedule.
+ * <p>
+ * A new key is published {@code publicationDelay} before it starts signing, so that verifiers polling the JWKS
+ * endpoint know it before the first token signed with it. A key stops signing when its successor activates and
+ * stays verifiable until the last token it signed has expired. Any node may rotate; a concurrent rotation only
+ * publishes one more key.
+ * <p>
+ * Private keys are encrypted with a key derived from {@code oc.app.jwt.keyEncryptionSecret}, a secret of its own:
+ * {@code oc.app.jwtSecret} signed every legacy token and may have leaked with one of them. Only while
+ * {@code oc.app.jwt.acceptLegacyTokens} is set, HS512 tokens signed with {@code oc.app.jwtSecret} are still accepted;
+ * it is off by default and meant for the migration window only. A stored key that cannot be decrypted, e.g. one
+ * encrypted under a previous secret, is kept for verification only, and a new key signs right away when no active
+ * key can.
+ */
+@Component
+public class JwtKeyManager implements JwtKeyResolver {
+  private static final Logger logger = LoggerFactory.getLogger(JwtKeyManager.class);
+
+  private static final long MIN_RELOAD_INTERVAL_MS = 5000;
+  private static final int GCM_IV_LENGTH = 12;
+  private static final int GCM_TAG_BITS = 128;
+
+  private final JwtSigningKeyRepository jwtSigningKeyRepository;
+
+  private final Duration rotationPeriod;
+
+  private final Duration publicationDelay;
+
+  private final Duration tokenLifetime;
+
+  private final int keySize;
+
+  private final HmacJwtKey legacyKey;
+
+  private final SecretKeySpec wrappingKey;
+
+  private final SecureRandom secureRandom = new SecureRandom();
+
+  private volatile List<RsaJwtKey> keys = Collections.emptyList();
+
+  private volatile Map<String, RsaJwtKey> keysById = Collections.emptyMap();
+
+  private volatile long lastReload;
+
+  public JwtKeyManager(JwtSigningKeyRepository jwtSigningKeyRepository,
+                       @Value("${oc.app.jwtSecret}") String jwtSecret,
+                       @Value("${oc.app.jwt.keyEncryptionSecret}") String keyEncryptionSecret,
+                       @Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs,
+                       @Value("${oc.app.jwt.rotationPeriod:7d}") Duration rotationPeriod,
+                       @Value("${oc.app.jwt.publicationDelay:10m}") Duration publicationDelay,
+                       @Value("${oc.app.jwt.keySize:2048}") int keySize,
+                       @Value("${oc.app.jwt.acceptLegacyTokens:false}") boolean acceptLegacyTokens) {
+    if (publicationDelay.compareTo(rotationPeriod) >= 0) {
+      throw new IllegalArgumentException("oc.app.jwt.publicationDelay must be shorter than oc.app.jwt.rotationPeriod");
+    }
+    if (keyEncryptionSecret.trim().isEmpty() || keyEncryptionSecret.equals(jwtSecret)) {
+      throw new IllegalArgumentException("oc.app.jwt.keyEncryptionSecret must be set and differ from oc.app.jwtSecret");
+    }
+
+    this.jwtSigningKeyRepository = jwtSigningKeyRepository;
+    this.rotationPeriod = rotationPeriod;
+    this.publicationDelay = publicationDelay;
+    this.tokenLifetime = Duration.ofMillis(jwtExpirationMs);
+    this.keySize = keySize;
+    this.legacyKey = acceptLegacyTokens ? new HmacJwtKey(TextCodec.BASE64.decode(jwtSecret)) : null;
+    this.wrappingKey = new SecretKeySpec(sha256(keyEncryptionSecret), "AES");
+  }
+
+  @PostConstruct
+  public void init() {
+    refresh();
+  }
+
+  /**
+   * Publishes the next key when the current one is due for rotation, drops keys no token can still use,
+   * and reloads the keys other nodes may have published.
+   */
+  @Scheduled(fixedDelayString = "${oc.app.jwt.refreshIntervalMs:60000}", initialDelayString = "${oc.app.jwt.refreshIntervalMs:60000}")
+  public void refresh() {
+    Instant now = Instant.now();
+    List<JwtSigningKey> stored = jwtSigningKeyRepository.findAllByOrderByActivatesAtAscIdAsc();
+
+    JwtSigningKey newest = stored.isEmpty() ? null : stored.get(stored.size() - 1);
+    if (newest == null || !now.isBefore(newest.getActivatesAt().plus(rotationPeriod).minus(publicationDelay))) {
+      Instant activatesAt = newest == null ? now : max(newest.getActivatesAt().plus(rotationPeriod), now.plus(publicationDelay));
+      RsaJwtKey key = RsaJwtKey.generate(keySize, activatesAt);
+      jwtSigningKeyRepository.save(toEntity(key));
+      logger.info("Published JWT signing key {}, signing from {}", key.getKid(), activatesAt);
+    }
+
+    for (int i = 0; i + 1 < stored.size(); i++) {
+      // Tokens signed by a key are all expired once its successor has been signing for a full token lifetime
+      if (!stored.get(i + 1).getActivatesAt().plus(tokenLifetime).isAfter(now)) {
+        jwtSigningKeyRepository.delete(stored.get(i));
+        logger.info("Retired JWT signing key {}", stored.get(i).getKid());
+      }
+    }
+
+    reload();
+
+    if (keys.stream().noneMatch(key -> key.canSign() && !key.getActivatesAt().isAfter(now))) {
+      RsaJwtKey key = RsaJwtKey.generate(keySize, now);
+      jwtSigningKeyRepository.save(toEntity(key));
+      logger.warn("No active JWT signing key can be decrypted, published JWT signing key {} signing right away", key.getKid());
+      reload();
+    }
+  }
+
+  @Override
+  public JwtKey signingKey() {
+    Instant now = Instant.now();
+    List<RsaJwtKey> current = keys;
+    for (int i = current.size() - 1; i >= 0; i--) {
+      if (current.get(i).canSign() && !current.get(i).getActivatesAt().isAfter(now)) {
+        return current.get(i);
+      }
+    }
+
+    throw new IllegalStateException("No active JWT signing key");
+  }
+
+  @Override
+  public JwtKey verificationKey(String algorithm, String kid) {
+    if (HmacJwtKey.ALGORITHM.equals(algorithm)) {
+      return kid == null ? legacyKey : null;
+    }
+    if (!RsaJwtKey.ALGORITHM.equals(algorithm) || kid == null) {
+      return null;
+    }
+
+    RsaJwtKey key = keysById.get(kid);
+    if (key == null && System.currentTimeMillis() - lastReload > MIN_RELOAD_INTERVAL_MS) {
+      // Possibly published by another node since the last refresh
+      reload();
+      key = keysById.get(kid);
+    }
+
+    return key;
+  }
+
+  /**
+   * Every published key, including the ones not signing yet, as a JWK Set (RFC 7517).
+   */
+  public Map<String, Object> jwks() {
+    List<Map<String, Object>> jwks = keys.stream().map(RsaJwtKey::toJwk).collect(Collectors.toList());
+
+    return Collections.singletonMap("keys", jwks);
+  }
+
+  private synchronized void reload() {
+    List<RsaJwtKey> loaded = new ArrayList<>();
+    for (JwtSigningKey stored : jwtSigningKeyRepository.findAllByOrderByActivatesAtAscIdAsc()) {
+      try {
+        loaded.add(toKey(stored));
+      } catch (GeneralSecurityException | IllegalArgumentException e) {
+        logger.error("Cannot read JWT signing key {}: {}", stored.getKid(), e.getMessage());
+      }
+    }
+
+    Map<String, RsaJwtKey> byId = new HashMap<>();
+    loaded.forEach(key -> byId.put(key.getKid(), key));
+
+    keys = Collections.unmodifiableList(loaded);
+    keysById = byId;
+    lastReload = System.currentTimeMillis();
+  }
+
+  private JwtSigningKey toEntity(RsaJwtKey key) {
+    try {
+      byte[] iv = new byte[GCM_IV_LENGTH];
+      secureRandom.nextBytes(iv);
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+      byte[] encrypted = cipher.doFinal(key.getPrivateKey().getEncoded());
+
+      return JwtSigningKey.builder()
+          .kid(key.getKid())
+          .algorithm(key.getAlgorithm())
+          .publicKey(Base64.getEncoder().encodeToString(key.getPublicKey().getEncoded()))
+          .privateKey(Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array()))
+          .activatesAt(key.getActivatesAt())
+          .build();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot encrypt JWT signing key", e);
+    }
+  }
+
+  private RsaJwtKey toKey(JwtSigningKey stored) throws GeneralSecurityException {
+    KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+    RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(
+        new X509EncodedKeySpec(Base64.getDecoder().decode(stored.getPublicKey())));
+
+    RSAPrivateKey privateKey;
+    try {
+      byte[] wrapped = Base64.getDecoder().decode(stored.getPrivateKey());
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(GCM_TAG_BITS, wrapped, 0, GCM_IV_LENGTH));
+      privateKey = (RSAPrivateKey) keyFactory.generatePrivate(
+          new PKCS8EncodedKeySpec(cipher.doFinal(wrapped, GCM_IV_LENGTH, wrapped.length - GCM_IV_LENGTH)));
+    } catch (GeneralSecurityException e) {
+      // The tokens it signed stay verifiable with its public key
+      logger.warn("Cannot decrypt JWT signing key {}, kept for verification only: {}", stored.getKid(), e.getMessage());
+      privateKey = null;
+    }
+
+    return new RsaJwtKey(stored.getKid(), publicKey, privateKey, stored.getActivatesAt());
+  }
+
+  private static Instant max(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
+  }
+
+  private static byte[] sha256(String value) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+/**
+ * Supplies the keys {@link JwtEngine} signs and verifies with.
+ */
+public interface JwtKeyResolver {
+  /**
+   * The key new tokens are signed with.
+   */
+  JwtKey signingKey();
+
+  /**
+   * The key matching the header of a token, or {@code null} when none is known.
+   */
+  JwtKey verificationKey(String algorithm, String kid);
+
+  /**
+   * A resolver with a single key, signing and verifying every token.
+   */
+  static JwtKeyResolver single(JwtKey key) {
+    return new JwtKeyResolver() {
+      @Override
+      public JwtKey signingKey() {
+        return key;
+      }
+
+      @Override
+      public JwtKey verificationKey(String algorithm, String kid) {
+        boolean matches = key.getAlgorithm().equals(algorithm)
+            && (key.getKid() == null || key.getKid().equals(kid));
+        return matches ? key : null;
+      }
+    };
+  }
+}
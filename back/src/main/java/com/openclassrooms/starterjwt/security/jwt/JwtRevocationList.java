@@ -0,0 +1,196 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Revoked access tokens, checked on every request without reading the database.
+ * <p>
+ * A token is revoked by its id ({@code jti}), or with every token of its user issued up to the revocation.
+ * Revocations are kept in memory in an exact map fronted by a {@link BloomFilter}, so that the usual case, a token
+ * that was never revoked, costs a few bit reads. Entries are dropped once no token they match can still be valid.
+ * <p>
+ * Revocations are persisted in REVOKED_TOKENS: each node loads them on startup and polls for the ones made
+ * by other nodes every {@code oc.app.jwt.revocation.syncIntervalMs}.
+ */
+@Component
+public class JwtRevocationList {
+  private static final Logger logger = LoggerFactory.getLogger(JwtRevocationList.class);
+
+  private static final String TOKEN_PREFIX = "jti:";
+  private static final String USER_PREFIX = "user:";
+
+  private static final String USER_ID_CLAIM = "id";
+
+  /**
+   * Re-read margin covering clock skew between nodes and revocations committed after their timestamp.
+   */
+  private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+  private final RevokedTokenRepository revokedTokenRepository;
+
+  private final Duration tokenLifetime;
+
+  private final int expectedEntries;
+
+  private final double falsePositiveRate;
+
+  private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+
+  private volatile BloomFilter filter;
+
+  private volatile Instant lastSync;
+
+  public JwtRevocationList(RevokedTokenRepository revokedTokenRepository,
+                           @Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs,
+                           @Value("${oc.app.jwt.revocation.expectedEntries:100000}") int expectedEntries,
+                           @Value("${oc.app.jwt.revocation.falsePositiveRate:0.001}") double falsePositiveRate) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.tokenLifetime = Duration.ofMillis(jwtExpirationMs);
+    this.expectedEntries = expectedEntries;
+    this.falsePositiveRate = falsePositiveRate;
+    this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+  }
+
+  @PostConstruct
+  public void init() {
+    Instant now = Instant.now();
+    revokedTokenRepository.findByExpiresAtAfter(now).forEach(this::remember);
+    lastSync = now;
+    logger.info("Loaded {} JWT revocations", revocations.size());
+  }
+
+  public boolean isRevoked(Claims claims) {
+    String tokenId = claims.getId();
+    if (tokenId != null && find(TOKEN_PREFIX + tokenId) != null) {
+      return true;
+    }
+
+    Long userId = claims.get(USER_ID_CLAIM, Long.class);
+    Date issuedAt = claims.getIssuedAt();
+    Revocation revocation = userId != null ? find(USER_PREFIX + userId) : null;
+
+    return revocation != null && (issuedAt == null || !issuedAt.toInstant().isAfter(revocation.revokedAt));
+  }
+
+  /**
+   * Revokes a single token until it expires. Tokens issued without an id cannot be revoked on their own.
+   */
+  @Transactional
+  public void revokeToken(Claims claims) {
+    if (claims.getId() == null || claims.getExpiration() == null) {
+      logger.warn("Cannot revoke a JWT token without id or expiration");
+      return;
+    }
+
+    revoke(TOKEN_PREFIX + claims.getId(), claims.getExpiration().toInstant());
+  }
+
+  /**
+   * Revokes every token of a user issued up to now.
+   */
+  @Transactional
+  public void revokeUser(Long userId) {
+    revoke(USER_PREFIX + userId, Instant.now().plus(tokenLifetime));
+  }
+
+  /**
+   * Picks up the revocations made by other nodes.
+   */
+  @Scheduled(fixedDelayString = "${oc.app.jwt.revocation.syncIntervalMs:5000}", initialDelayString = "${oc.app.jwt.revocation.syncIntervalMs:5000}")
+  public void sync() {
+    Instant now = Instant.now();
+    revokedTokenRepository.findByRevokedAtGreaterThanEqual(lastSync.minus(SYNC_OVERLAP)).forEach(this::remember);
+    lastSync = now;
+  }
+
+  /**
+   * Drops the revocations of expired tokens, in memory and in REVOKED_TOKENS.
+   */
+  @Transactional
+  @Scheduled(fixedDelayString = "${oc.app.jwt.revocation.purgeIntervalMs:600000}")
+  public void purge() {
+    Instant now = Instant.now();
+    revokedTokenRepository.deleteExpired(now);
+
+    synchronized (this) {
+      if (revocations.values().removeIf(revocation -> revocation.expiresAt.isBefore(now))) {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, 2 * revocations.size()), falsePositiveRate);
+        revocations.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+      }
+    }
+  }
+
+  private void revoke(String key, Instant expiresAt) {
+    RevokedToken revokedToken = revokedTokenRepository.save(RevokedToken.builder()
+        .tokenKey(key)
+        .revokedAt(Instant.now())
+        .expiresAt(expiresAt)
+        .build());
+
+    // Only once committed: a rolled-back revocation must not live on in the memory of this node alone
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      remember(revokedToken);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        remember(revokedToken);
+      }
+    });
+  }
+
+  private Revocation find(String key) {
+    if (!filter.mightContain(key)) {
+      return null;
+    }
+
+    Revocation revocation = revocations.get(key);
+    return revocation != null && revocation.expiresAt.isAfter(Instant.now()) ? revocation : null;
+  }
+
+  private synchronized void remember(RevokedToken revokedToken) {
+    revocations.merge(revokedToken.getTokenKey(),
+        new Revocation(revokedToken.getRevokedAt(), revokedToken.getExpiresAt()), Revocation::latest);
+    // Added after the map entry, so that a key found in the filter is always found in the map
+    filter.put(revokedToken.getTokenKey());
+  }
+
+  private static final class Revocation {
+    private final Instant revokedAt;
+
+    private final Instant expiresAt;
+
+    private Revocation(Instant revokedAt, Instant expiresAt) {
+      this.revokedAt = revokedAt;
+      this.expiresAt = expiresAt;
+    }
+
+    private static Revocation latest(Revocation a, Revocation b) {
+      return new Revocation(a.revokedAt.isAfter(b.revokedAt) ? a.revokedAt : b.revokedAt,
+          a.expiresAt.isAfter(b.expiresAt) ? a.expiresAt : b.expiresAt);
+    }
+  }
+}
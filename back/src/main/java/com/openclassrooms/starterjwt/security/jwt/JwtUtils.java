@@ -1,59 +1,115 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
-import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.openclassrooms.starterjwt.security.SecurityEventLogger;
+import com.openclassrooms.starterjwt.security.SecurityEventLogger.Kind;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
 
 @Component
 public class JwtUtils {
-  private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+  @Autowired
+  private JwtKeyResolver jwtKeyResolver;
 
-  @Value("${oc.app.jwtSecret}")
-  private String jwtSecret;
+  @Autowired
+  private SecurityEventLogger securityEventLogger;
 
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  private static final String ID_CLAIM = "id";
+  private static final String FIRST_NAME_CLAIM = "firstName";
+  private static final String LAST_NAME_CLAIM = "lastName";
+  private static final String ADMIN_CLAIM = "admin";
+
+  private JwtEngine jwtEngine;
+
+  @PostConstruct
+  public void init() {
+    jwtEngine = new JwtEngine(jwtKeyResolver);
+  }
+
   public String generateJwtToken(Authentication authentication) {
+    return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+  }
 
-    UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+  public String generateJwtToken(UserDetailsImpl userPrincipal) {
+    long now = System.currentTimeMillis();
+    Map<String, Object> claims = new LinkedHashMap<>();
+    claims.put(Claims.ID, UUID.randomUUID().toString());
+    claims.put(Claims.SUBJECT, userPrincipal.getUsername());
+    claims.put(ID_CLAIM, userPrincipal.getId());
+    claims.put(FIRST_NAME_CLAIM, userPrincipal.getFirstName());
+    claims.put(LAST_NAME_CLAIM, userPrincipal.getLastName());
+    claims.put(ADMIN_CLAIM, Boolean.TRUE.equals(userPrincipal.getAdmin()));
+    claims.put(Claims.ISSUED_AT, now / 1000);
+    claims.put(Claims.EXPIRATION, (now + jwtExpirationMs) / 1000);
 
-    return Jwts.builder()
-        .setSubject((userPrincipal.getUsername()))
-        .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
-        .compact();
+    return jwtEngine.sign(claims);
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return jwtEngine.verify(token).getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseJwtClaims(authToken) != null;
+  }
+
+  /**
+   * Verifies the token and returns its claims, so that callers parse it only once.
+   *
+   * @return the claims, or {@code null} when the token is invalid
+   */
+  public Claims parseJwtClaims(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return jwtEngine.verify(authToken);
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      securityEventLogger.record(Kind.INVALID_SIGNATURE, e.getMessage());
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      securityEventLogger.record(Kind.MALFORMED_TOKEN, e.getMessage());
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      securityEventLogger.record(Kind.EXPIRED_TOKEN, e.getMessage());
+    } catch (PrematureJwtException e) {
+      securityEventLogger.record(Kind.PREMATURE_TOKEN, e.getMessage());
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      securityEventLogger.record(Kind.UNSUPPORTED_TOKEN, e.getMessage());
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      securityEventLogger.record(Kind.EMPTY_TOKEN, e.getMessage());
+    }
+
+    return null;
+  }
+
+  /**
+   * Rebuilds the authenticated user from signed claims, without reading the database.
+   *
+   * @return the user, or {@code null} for tokens issued before the user claims were added
+   */
+  public UserDetailsImpl getUserDetailsFromJwtClaims(Claims claims) {
+    Long id = claims.get(ID_CLAIM, Long.class);
+    if (id == null) {
+      return null;
     }
 
-    return false;
+    return UserDetailsImpl
+            .builder()
+            .id(id)
+            .username(claims.getSubject())
+            .firstName(claims.get(FIRST_NAME_CLAIM, String.class))
+            .lastName(claims.get(LAST_NAME_CLAIM, String.class))
+            .admin(Boolean.TRUE.equals(claims.get(ADMIN_CLAIM, Boolean.class)))
+            .build();
   }
 }
@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * RS256 key pair identified by a {@code kid}. Verification-only when the private key is not known.
+ */
+public class RsaJwtKey extends JwtKey {
+  public static final String ALGORITHM = "RS256";
+  private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+  private static final ThreadLocal<Signature> SIGNATURES = ThreadLocal.withInitial(() -> {
+    try {
+      return Signature.getInstance(SIGNATURE_ALGORITHM);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot initialize " + SIGNATURE_ALGORITHM, e);
+    }
+  });
+
+  private final RSAPublicKey publicKey;
+
+  private final RSAPrivateKey privateKey;
+
+  private final Instant activatesAt;
+
+  public RsaJwtKey(String kid, RSAPublicKey publicKey, RSAPrivateKey privateKey, Instant activatesAt) {
+    super(kid, ALGORITHM);
+    this.publicKey = publicKey;
+    this.privateKey = privateKey;
+    this.activatesAt = activatesAt;
+  }
+
+  public static RsaJwtKey generate(int keySize, Instant activatesAt) {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(keySize);
+      KeyPair keyPair = generator.generateKeyPair();
+
+      return new RsaJwtKey(UUID.randomUUID().toString(),
+          (RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate(), activatesAt);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot generate an RSA key pair", e);
+    }
+  }
+
+  public RSAPublicKey getPublicKey() {
+    return publicKey;
+  }
+
+  public RSAPrivateKey getPrivateKey() {
+    return privateKey;
+  }
+
+  /**
+   * From then on the key may sign; before that it is only published, so that verifiers learn it in advance.
+   */
+  public Instant getActivatesAt() {
+    return activatesAt;
+  }
+
+  @Override
+  public boolean canSign() {
+    return privateKey != null;
+  }
+
+  @Override
+  public byte[] sign(byte[] signingInput) {
+    if (privateKey == null) {
+      throw new IllegalStateException("Key " + getKid() + " is verification only");
+    }
+    try {
+      Signature signature = SIGNATURES.get();
+      signature.initSign(privateKey);
+      signature.update(signingInput);
+      return signature.sign();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot sign with key " + getKid(), e);
+    }
+  }
+
+  @Override
+  public boolean verify(byte[] signingInput, byte[] signature) {
+    try {
+      Signature verifier = SIGNATURES.get();
+      verifier.initVerify(publicKey);
+      verifier.update(signingInput);
+      return verifier.verify(signature);
+    } catch (GeneralSecurityException e) {
+      return false;
+    }
+  }
+
+  /**
+   * The public part of the key as a JSON Web Key (RFC 7517).
+   */
+  public Map<String, Object> toJwk() {
+    Map<String, Object> jwk = new LinkedHashMap<>();
+    jwk.put("kty", "RSA");
+    jwk.put("use", "sig");
+    jwk.put("alg", ALGORITHM);
+    jwk.put("kid", getKid());
+    jwk.put("n", base64Url(publicKey.getModulus()));
+    jwk.put("e", base64Url(publicKey.getPublicExponent()));
+    return jwk;
+  }
+
+  private static String base64Url(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    // Unsigned big-endian: drop the sign byte BigInteger adds when the high bit is set
+    if (bytes.length > 1 && bytes[0] == 0) {
+      bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+}
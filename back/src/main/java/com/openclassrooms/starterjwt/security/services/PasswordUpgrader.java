@@ -0,0 +1,90 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Re-hashes the password of a user who just logged in when its stored hash uses a lower BCrypt strength than the
+ * current one. The work runs on the password upgrade executor, so the login response does not wait for it, and
+ * the hashing itself still goes through the password encoder bulkhead. An upgrade that cannot run (full queue,
+ * busy encoder, hash changed meanwhile) is skipped: the next login tries again.
+ * <p>
+ * Published metrics: {@code auth.password.upgrades{outcome=upgraded|skipped}}.
+ */
+public class PasswordUpgrader {
+  private static final Logger logger = LoggerFactory.getLogger(PasswordUpgrader.class);
+
+  private final PasswordEncoder passwordEncoder;
+
+  private final UserRepository userRepository;
+
+  private final UserDetailsCacheEvictor userDetailsCacheEvictor;
+
+  private final TaskExecutor executor;
+
+  private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+  private final Counter upgraded;
+
+  private final Counter skipped;
+
+  public PasswordUpgrader(PasswordEncoder passwordEncoder, UserRepository userRepository,
+                          UserDetailsCacheEvictor userDetailsCacheEvictor, TaskExecutor executor,
+                          MeterRegistry meterRegistry) {
+    this.passwordEncoder = passwordEncoder;
+    this.userRepository = userRepository;
+    this.userDetailsCacheEvictor = userDetailsCacheEvictor;
+    this.executor = executor;
+    this.upgraded = Counter.builder("auth.password.upgrades").tag("outcome", "upgraded").register(meterRegistry);
+    this.skipped = Counter.builder("auth.password.upgrades").tag("outcome", "skipped").register(meterRegistry);
+  }
+
+  public boolean needsUpgrade(String encodedPassword) {
+    return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+  }
+
+  /**
+   * Schedules the upgrade of the hash the user has just been authenticated against.
+   */
+  public void upgrade(UserDetailsImpl user, String rawPassword) {
+    // A user logging in again before the cached hash is evicted must not queue a second upgrade
+    if (!inFlight.add(user.getId())) {
+      return;
+    }
+
+    try {
+      executor.execute(() -> rehash(user, rawPassword));
+    } catch (TaskRejectedException e) {
+      inFlight.remove(user.getId());
+      skipped.increment();
+    }
+  }
+
+  private void rehash(UserDetailsImpl user, String rawPassword) {
+    try {
+      String newHash = passwordEncoder.encode(rawPassword);
+      if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), newHash) > 0) {
+        userDetailsCacheEvictor.evict(user.getUsername());
+        upgraded.increment();
+      } else {
+        skipped.increment();
+      }
+    } catch (RuntimeException e) {
+      skipped.increment();
+      logger.warn("Password upgrade failed for user {}: {}", user.getId(), e.getMessage());
+    } finally {
+      inFlight.remove(user.getId());
+    }
+  }
+}
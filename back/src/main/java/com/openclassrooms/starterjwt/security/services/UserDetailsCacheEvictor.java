@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.models.User;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Drops the cached {@link UserDetailsImpl} of a user whenever the user row is updated (e.g. a new password)
+ * or deleted. Eviction waits for the commit, so that a concurrent login cannot cache the old row again.
+ */
+@Component
+public class UserDetailsCacheEvictor {
+  private final CacheManager cacheManager;
+
+  public UserDetailsCacheEvictor(CacheManager cacheManager) {
+    this.cacheManager = cacheManager;
+  }
+
+  @PostUpdate
+  @PostRemove
+  public void onUserChanged(User user) {
+    evict(user.getEmail());
+  }
+
+  public void evict(String email) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evictNow(email);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        evictNow(email);
+      }
+    });
+  }
+
+  private void evictNow(String email) {
+    Cache cache = cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE);
+    if (cache != null) {
+      cache.evict(email);
+    }
+  }
+}
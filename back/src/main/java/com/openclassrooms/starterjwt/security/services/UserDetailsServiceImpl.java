@@ -1,11 +1,13 @@
 package com.openclassrooms.starterjwt.security.services;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.openclassrooms.starterjwt.config.CacheConfig;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
@@ -17,20 +19,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     this.userRepository = userRepository;
   }
 
+  /**
+   * Cached by email, see {@link UserDetailsCacheEvictor} for invalidation.
+   */
   @Override
   @Transactional
+  @Cacheable(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#username")
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
     User user = userRepository.findByEmail(username)
         .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + username));
 
-    return UserDetailsImpl
-            .builder()
-            .id(user.getId())
-            .username(user.getEmail())
-            .lastName(user.getLastName())
-            .firstName(user.getFirstName())
-            .password(user.getPassword())
-            .build();
+    return UserDetailsImpl.build(user);
   }
 
 }
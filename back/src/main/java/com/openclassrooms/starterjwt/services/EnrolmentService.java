@@ -0,0 +1,132 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.EnrolmentResult;
+import com.openclassrooms.starterjwt.payload.response.EnrolmentResult.Status;
+import com.openclassrooms.starterjwt.repository.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Enrols many users in one session, or one user in many sessions.
+ * <p>
+ * All ids are checked with a single query, seats are taken through {@link SeatReservationService} as for a
+ * single enrolment, and the accepted pairs are inserted in one JDBC batch, within the capacity of their session. Every requested id gets its own
+ * result, in request order; rejected ids do not prevent the others from being enrolled.
+ */
+@Service
+public class EnrolmentService {
+    private final SessionRepository sessionRepository;
+
+    private final UserRepository userRepository;
+
+    private final ParticipationBatchRepository participationBatchRepository;
+
+    private final SeatReservationService seatReservationService;
+
+    public EnrolmentService(SessionRepository sessionRepository,
+                            UserRepository userRepository,
+                            ParticipationBatchRepository participationBatchRepository,
+                            SeatReservationService seatReservationService) {
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.participationBatchRepository = participationBatchRepository;
+        this.seatReservationService = seatReservationService;
+    }
+
+    @Transactional
+    public List<EnrolmentResult> enrolUsers(Long sessionId, List<Long> userIds) {
+        Session session = this.sessionRepository.findById(sessionId).orElseThrow(NotFoundException::new);
+
+        Map<Long, ParticipationCheck> checks = this.sessionRepository.checkUsers(sessionId, new HashSet<>(userIds)).stream()
+                .collect(Collectors.toMap(ParticipationCheck::getId, Function.identity()));
+
+        List<EnrolmentResult> results = new ArrayList<>(userIds.size());
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            ParticipationCheck check = checks.get(userId);
+            Status status = check == null ? Status.USER_NOT_FOUND : this.admit(check, sessionId, session.getCapacity());
+            results.add(new EnrolmentResult(sessionId, userId, status));
+        }
+
+        return this.insert(results);
+    }
+
+    @Transactional
+    public List<EnrolmentResult> enrolInSessions(Long userId, List<Long> sessionIds) {
+        if (!this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+
+        Map<Long, SessionParticipationCheck> checks = this.sessionRepository.checkSessions(userId, new HashSet<>(sessionIds)).stream()
+                .collect(Collectors.toMap(ParticipationCheck::getId, Function.identity()));
+
+        List<EnrolmentResult> results = new ArrayList<>(sessionIds.size());
+        for (Long sessionId : new LinkedHashSet<>(sessionIds)) {
+            SessionParticipationCheck check = checks.get(sessionId);
+            Status status = check == null ? Status.SESSION_NOT_FOUND : this.admit(check, sessionId, check.getCapacity());
+            results.add(new EnrolmentResult(sessionId, userId, status));
+        }
+
+        return this.insert(results);
+    }
+
+    private Status admit(ParticipationCheck check, Long sessionId, Integer capacity) {
+        if (check.getParticipating() > 0) {
+            return Status.ALREADY_PARTICIPATING;
+        }
+
+        return this.seatReservationService.reserve(sessionId, capacity) ? Status.ENROLLED : Status.SESSION_FULL;
+    }
+
+    private List<EnrolmentResult> insert(List<EnrolmentResult> results) {
+        List<EnrolmentResult> accepted = results.stream()
+                .filter(result -> result.getStatus() == Status.ENROLLED)
+                .collect(Collectors.toList());
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        int[] counts;
+        try {
+            counts = this.participationBatchRepository.insertMissing(accepted.stream()
+                    .map(result -> new long[]{result.getSessionId(), result.getUserId()})
+                    .collect(Collectors.toList()));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent enrolment of the same pair won the unique key; the rollback frees every seat taken here
+            throw new ConflictException();
+        }
+
+        List<EnrolmentResult> inserted = new ArrayList<>(results.size());
+        int batchIndex = 0;
+        for (EnrolmentResult result : results) {
+            if (result.getStatus() == Status.ENROLLED && counts[batchIndex++] == 0) {
+                result = this.refused(result);
+            }
+            inserted.add(result);
+        }
+
+        return inserted;
+    }
+
+    private EnrolmentResult refused(EnrolmentResult result) {
+        Long sessionId = result.getSessionId();
+        // Either way the seat reserved for it is not needed
+        this.seatReservationService.release(sessionId);
+
+        if (this.sessionRepository.countParticipation(sessionId, result.getUserId()) > 0) {
+            // Enrolled concurrently since the check
+            return new EnrolmentResult(sessionId, result.getUserId(), Status.ALREADY_PARTICIPATING);
+        }
+
+        // Full in PARTICIPATE although the counter had a seat left, e.g. taken through another node
+        this.seatReservationService.recount(sessionId);
+        return new EnrolmentResult(sessionId, result.getUserId(), Status.SESSION_FULL);
+    }
+}
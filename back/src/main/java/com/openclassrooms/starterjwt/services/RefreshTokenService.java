@@ -0,0 +1,182 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.UnauthorizedException;
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Opaque refresh tokens, rotated on every use.
+ * <p>
+ * A token is {@code <family id>.<secret>}: the family is the login it was issued for and only the hash of its
+ * latest secret is stored. Presenting an older secret of a family means the token was copied, so the whole
+ * family is revoked and both the legitimate client and the attacker have to log in again.
+ * <p>
+ * The user is read on every rotation, which bounds how long a deleted account keeps working to the access
+ * token lifetime.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int SECRET_LENGTH = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final Duration refreshTokenLifetime;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${oc.app.refreshTokenExpirationMs}") long refreshTokenExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshTokenLifetime = Duration.ofMillis(refreshTokenExpirationMs);
+    }
+
+    /**
+     * Starts a new family for a successful login.
+     */
+    @Transactional
+    public String issue(Long userId) {
+        String familyId = UUID.randomUUID().toString();
+        String secret = this.newSecret();
+
+        this.refreshTokenRepository.save(RefreshToken.builder()
+                .familyId(familyId)
+                .userId(userId)
+                .tokenHash(hash(secret))
+                .expiresAt(Instant.now().plus(this.refreshTokenLifetime))
+                .build());
+
+        return familyId + '.' + secret;
+    }
+
+    /**
+     * Exchanges a refresh token for the next one of its family.
+     *
+     * @throws UnauthorizedException when the token is unknown, expired or already used, or its user is gone
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String refreshToken) {
+        String[] parts = split(refreshToken);
+        RefreshToken current = this.refreshTokenRepository.findById(parts[0]).orElseThrow(UnauthorizedException::new);
+
+        String presentedHash = hash(parts[1]);
+        if (current.getExpiresAt().isBefore(Instant.now())) {
+            this.refreshTokenRepository.revoke(current.getFamilyId());
+            throw new UnauthorizedException();
+        }
+        if (!MessageDigest.isEqual(presentedHash.getBytes(StandardCharsets.US_ASCII), current.getTokenHash().getBytes(StandardCharsets.US_ASCII))) {
+            this.revokeReused(current);
+        }
+
+        Optional<User> user = this.userRepository.findById(current.getUserId());
+        if (!user.isPresent()) {
+            this.refreshTokenRepository.revoke(current.getFamilyId());
+            throw new UnauthorizedException();
+        }
+
+        String secret = this.newSecret();
+        int rotated = this.refreshTokenRepository.rotate(current.getFamilyId(), presentedHash, hash(secret),
+                Instant.now().plus(this.refreshTokenLifetime));
+        if (rotated == 0) {
+            // Rotated concurrently with the same token
+            this.revokeReused(current);
+        }
+
+        return new Rotation(user.get(), current.getFamilyId() + '.' + secret);
+    }
+
+    /**
+     * Ends the login a refresh token belongs to. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        int separator = refreshToken.indexOf('.');
+        if (separator > 0) {
+            this.refreshTokenRepository.revoke(refreshToken.substring(0, separator));
+        }
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        this.refreshTokenRepository.revokeAllByUserId(userId);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${oc.app.refreshTokenPurgeIntervalMs:3600000}")
+    public void purgeExpired() {
+        int purged = this.refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private void revokeReused(RefreshToken family) {
+        this.refreshTokenRepository.revoke(family.getFamilyId());
+        logger.warn("Refresh token reused, revoked login {} of user {}", family.getFamilyId(), family.getUserId());
+
+        throw new UnauthorizedException();
+    }
+
+    private String newSecret() {
+        byte[] secret = new byte[SECRET_LENGTH];
+        this.secureRandom.nextBytes(secret);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    private static String[] split(String refreshToken) {
+        int separator = refreshToken.indexOf('.');
+        if (separator <= 0 || separator == refreshToken.length() - 1) {
+            throw new UnauthorizedException();
+        }
+
+        return new String[]{refreshToken.substring(0, separator), refreshToken.substring(separator + 1)};
+    }
+
+    private static String hash(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.US_ASCII));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+
+            return hex.toString();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Rotation {
+        private final User user;
+
+        private final String refreshToken;
+    }
+}
@@ -0,0 +1,14 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when an unenrolment frees a seat. The seat stays counted as taken
+ * until the waitlist promotion hands it to the next user or gives it back.
+ */
+@Getter
+@AllArgsConstructor
+public class SeatReleasedEvent {
+    private final Long sessionId;
+}
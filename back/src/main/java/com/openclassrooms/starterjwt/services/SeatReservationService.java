@@ -0,0 +1,188 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.SessionParticipantCount;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for session seats.
+ * <p>
+ * Each session owns an in-memory counter of taken seats, seeded from PARTICIPATE, so that a burst of sign-ups
+ * is arbitrated by compare-and-set instead of row locks. Counters only move with the outcome of the surrounding
+ * transaction: a reservation is given back if the enrolment rolls back, and a seat freed by an unenrolment is
+ * only reusable once the deletion is committed.
+ * <p>
+ * Counters are a per-node fast path, not the source of truth: other nodes take seats too, and PARTICIPATE may be
+ * rewritten behind their back. The insert itself is conditioned on the session capacity (see
+ * {@link SessionRepository#addParticipant}); when it is refused, the counter is recounted in place.
+ */
+@Service
+public class SeatReservationService {
+    private final SessionRepository sessionRepository;
+
+    private final ConcurrentMap<Long, SeatCounter> seatCounters = new ConcurrentHashMap<>();
+
+    public SeatReservationService(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    /**
+     * Seeds every counter from PARTICIPATE. Counters already created by early requests are kept,
+     * since they were seeded from the same table and have tracked every change since. Read-write, so that the
+     * counts come from the primary and never from a lagging read replica.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcile() {
+        for (SessionParticipantCount count : this.sessionRepository.countAllParticipants()) {
+            this.seatCounters.putIfAbsent(count.getSessionId(), new SeatCounter(count.getParticipantCount().intValue()));
+        }
+    }
+
+    /**
+     * Takes a seat if the session is not full.
+     *
+     * @param capacity the session capacity, {@code null} for an unlimited session
+     * @return {@code false} when no seat is left
+     */
+    public boolean reserve(Long sessionId, Integer capacity) {
+        SeatCounter seats = this.seats(sessionId);
+
+        int taken;
+        do {
+            taken = seats.taken.get();
+            if (capacity != null && taken >= capacity) {
+                return false;
+            }
+        } while (!seats.taken.compareAndSet(taken, taken + 1));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return true;
+        }
+
+        // Pending until the enrolment completes, so that a recount in the meantime keeps counting it
+        seats.pending.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    seats.decrement();
+                }
+                seats.pending.decrementAndGet();
+            }
+        });
+        return true;
+    }
+
+    public boolean hasSeatLeft(Long sessionId, Integer capacity) {
+        return capacity == null || this.seats(sessionId).taken.get() < capacity;
+    }
+
+    /**
+     * Gives a seat back once the current transaction commits, or immediately outside of a transaction.
+     */
+    public void release(Long sessionId) {
+        this.onCompletion(TransactionSynchronization.STATUS_COMMITTED, () -> this.decrement(sessionId));
+    }
+
+    /**
+     * Gives a seat back right away, regardless of any transaction in progress.
+     */
+    public void releaseNow(Long sessionId) {
+        this.decrement(sessionId);
+    }
+
+    /**
+     * Has the counter of a session rebuilt in place on its next use, from the PARTICIPATE rows plus the reservations
+     * of this node still in flight, e.g. after its participants were rewritten or an insert was refused as over
+     * capacity. The count is left to the next caller's transaction rather than taking a connection of its own.
+     */
+    public void recount(Long sessionId) {
+        SeatCounter seats = this.seatCounters.get(sessionId);
+        if (seats != null) {
+            seats.stale.set(true);
+        }
+    }
+
+    /**
+     * Drops the counter of a deleted session. A counter with reservations still in flight is recounted instead,
+     * so that their outcome is not applied to a counter nobody reads anymore.
+     */
+    public void forget(Long sessionId) {
+        SeatCounter seats = this.seatCounters.computeIfPresent(sessionId, (id, counter) -> counter.pending.get() == 0 ? null : counter);
+        if (seats != null) {
+            seats.stale.set(true);
+        }
+    }
+
+    public int takenSeats(Long sessionId) {
+        return this.seats(sessionId).taken.get();
+    }
+
+    private SeatCounter seats(Long sessionId) {
+        SeatCounter seats = this.seatCounters.get(sessionId);
+        if (seats != null) {
+            if (seats.stale.compareAndSet(true, false)) {
+                seats.taken.set((int) this.sessionRepository.countParticipants(sessionId) + seats.pending.get());
+            }
+            return seats;
+        }
+
+        // Seeded outside of the map lock; a concurrent seed of the same session wins and is reused
+        SeatCounter seeded = new SeatCounter((int) this.sessionRepository.countParticipants(sessionId));
+        seats = this.seatCounters.putIfAbsent(sessionId, seeded);
+
+        return seats != null ? seats : seeded;
+    }
+
+    private void decrement(Long sessionId) {
+        SeatCounter seats = this.seatCounters.get(sessionId);
+        if (seats != null) {
+            seats.decrement();
+        }
+    }
+
+    private void onCompletion(int expectedStatus, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (expectedStatus == TransactionSynchronization.STATUS_COMMITTED) {
+                action.run();
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == expectedStatus) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static final class SeatCounter {
+        private final AtomicInteger taken;
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final AtomicBoolean stale = new AtomicBoolean();
+
+        private SeatCounter(int taken) {
+            this.taken = new AtomicInteger(taken);
+        }
+
+        private void decrement() {
+            this.taken.updateAndGet(taken -> Math.max(0, taken - 1));
+        }
+    }
+}
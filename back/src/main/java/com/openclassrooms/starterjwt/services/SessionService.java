@@ -1,14 +1,22 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionParticipantCount;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,62 +25,126 @@ public class SessionService {
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final SeatReservationService seatReservationService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SessionService(SessionRepository sessionRepository,
+                          UserRepository userRepository,
+                          SeatReservationService seatReservationService,
+                          ApplicationEventPublisher eventPublisher) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.seatReservationService = seatReservationService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        // Inserted right away, as with identity ids, so that the created session carries its timestamps
+        return this.sessionRepository.saveAndFlush(session);
     }
 
     public void delete(Long id) {
         this.sessionRepository.deleteById(id);
+        this.seatReservationService.forget(id);
     }
 
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    /**
+     * Summaries of every session, ordered by date, without participants.
+     */
+    @Transactional(readOnly = true)
+    public List<SessionDto> findAllSummaries() {
+        return this.sessionRepository.findAllSummaries();
+    }
+
+    /**
+     * Summaries of the sessions following {@code after}, ordered by date, without participants.
+     */
+    @Transactional(readOnly = true)
+    public List<SessionDto> findPage(SessionCursor after, int limit) {
+        PageRequest pageRequest = PageRequest.of(0, limit);
+
+        if (after == null) {
+            return this.sessionRepository.findFirstPage(pageRequest);
+        }
+
+        return this.sessionRepository.findPageAfter(after.getDate(), after.getId(), pageRequest);
+    }
+
+    public Map<Long, Long> countParticipants(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return this.sessionRepository.countParticipants(sessionIds).stream()
+                .collect(Collectors.toMap(SessionParticipantCount::getSessionId, SessionParticipantCount::getParticipantCount));
+    }
+
+    public Map<Long, List<Long>> findParticipantIds(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return this.sessionRepository.findParticipants(sessionIds).stream()
+                .collect(Collectors.groupingBy(SessionParticipant::getSessionId,
+                        Collectors.mapping(SessionParticipant::getUserId, Collectors.toList())));
+    }
+
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
     public Session update(Long id, Session session) {
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session updated = this.sessionRepository.save(session);
+        // Participants may have been rewritten
+        this.seatReservationService.recount(id);
+
+        return updated;
     }
 
+    @Transactional
     public void participate(Long id, Long userId) {
         Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
+        if (session == null || !this.userRepository.existsById(userId)) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
-            throw new BadRequestException();
+        if (!this.seatReservationService.reserve(id, session.getCapacity())) {
+            throw new ConflictException();
         }
 
-        session.getUsers().add(user);
+        int inserted;
+        try {
+            inserted = this.sessionRepository.addParticipant(id, userId);
+        } catch (DataIntegrityViolationException e) {
+            // Unique (session_id, user_id) key: the user already participates, the rollback frees the seat
+            throw new BadRequestException();
+        }
 
-        this.sessionRepository.save(session);
+        if (inserted == 0) {
+            // Full in PARTICIPATE although the counter had a seat left, e.g. taken through another node
+            this.seatReservationService.recount(id);
+            throw new ConflictException();
+        }
     }
 
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
-            throw new NotFoundException();
+        if (this.sessionRepository.removeParticipant(id, userId) > 0) {
+            // The freed seat goes to the waitlist first, see WaitlistPromoter
+            this.eventPublisher.publishEvent(new SeatReleasedEvent(id));
+            return;
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
-            throw new BadRequestException();
+        if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
         }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
-
-        this.sessionRepository.save(session);
+        throw new BadRequestException();
     }
 }
@@ -0,0 +1,50 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.models.Teacher;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Clears the teachers cache whenever a teacher is created, updated or deleted: the full list is cached along with
+ * each teacher. Clearing waits for the commit, so that a concurrent read cannot cache the old rows again.
+ */
+@Component
+public class TeacherCacheEvictor {
+    private final CacheManager cacheManager;
+
+    public TeacherCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onTeacherChanged(Teacher teacher) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clear();
+            }
+        });
+    }
+
+    private void clear() {
+        Cache cache = this.cacheManager.getCache(CacheConfig.TEACHERS_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
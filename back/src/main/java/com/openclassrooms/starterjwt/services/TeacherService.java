@@ -1,24 +1,82 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Teachers change rarely, so they are read through {@link CacheConfig#TEACHERS_CACHE}: by id, as the full list
+ * under the no-argument key of {@link #findAll()}, and as the listing DTOs of {@link #findAllDtos()}.
+ * {@link TeacherCacheEvictor} clears the cache on every write. The cached teachers are shared and must not be modified.
+ */
 @Service
 public class TeacherService {
     private final TeacherRepository teacherRepository;
 
-    public TeacherService(TeacherRepository teacherRepository) {
+    private final CacheManager cacheManager;
+
+    public TeacherService(TeacherRepository teacherRepository, CacheManager cacheManager) {
         this.teacherRepository = teacherRepository;
+        this.cacheManager = cacheManager;
     }
 
+    @Cacheable(CacheConfig.TEACHERS_CACHE)
     public List<Teacher> findAll() {
-        return this.teacherRepository.findAll();
+        return Collections.unmodifiableList(this.teacherRepository.findAll());
+    }
+
+    /**
+     * Every teacher read straight into its DTO, for the listing: no entity is loaded.
+     */
+    @Cacheable(cacheNames = CacheConfig.TEACHERS_CACHE, key = "'dtos'")
+    @Transactional(readOnly = true)
+    public List<TeacherDto> findAllDtos() {
+        return Collections.unmodifiableList(this.teacherRepository.findAllDtos());
     }
 
+    @Cacheable(CacheConfig.TEACHERS_CACHE)
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Returns the cached teachers among {@code ids} and loads the others with one query.
+     */
+    public List<Teacher> findAllById(Collection<Long> ids) {
+        Cache cache = this.cacheManager.getCache(CacheConfig.TEACHERS_CACHE);
+        if (cache == null) {
+            return this.teacherRepository.findAllById(ids);
+        }
+
+        List<Teacher> teachers = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Teacher teacher = cache.get(id, Teacher.class);
+            if (teacher != null) {
+                teachers.add(teacher);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Teacher teacher : this.teacherRepository.findAllById(missing)) {
+                cache.put(teacher.getId(), teacher);
+                teachers.add(teacher);
+            }
+        }
+
+        return teachers;
+    }
 }
@@ -1,22 +1,43 @@
 package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final JwtRevocationList jwtRevocationList;
+
+    public UserService(UserRepository userRepository,
+                       RefreshTokenRepository refreshTokenRepository,
+                       JwtRevocationList jwtRevocationList) {
         this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtRevocationList = jwtRevocationList;
     }
 
+    @Transactional
     public void delete(Long id) {
+        this.refreshTokenRepository.revokeAllByUserId(id);
+        this.jwtRevocationList.revokeUser(id);
         this.userRepository.deleteById(id);
     }
 
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    public List<User> findAllById(Collection<Long> ids) {
+        return this.userRepository.findAllById(ids);
+    }
 }
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Runs waitlist promotion once the unenrolment is committed, on the waitlist executor,
+ * so that the unenrol request does not wait for it.
+ * Every freed seat is either handed to a waiting user or given back, even when the promotion fails.
+ */
+@Component
+@Log4j2
+public class WaitlistPromoter {
+    private final WaitlistService waitlistService;
+
+    private final SeatReservationService seatReservationService;
+
+    private final TaskExecutor waitlistExecutor;
+
+    public WaitlistPromoter(WaitlistService waitlistService,
+                            SeatReservationService seatReservationService,
+                            @Qualifier("waitlistExecutor") TaskExecutor waitlistExecutor) {
+        this.waitlistService = waitlistService;
+        this.seatReservationService = seatReservationService;
+        this.waitlistExecutor = waitlistExecutor;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatReleased(SeatReleasedEvent event) {
+        try {
+            this.waitlistExecutor.execute(() -> this.promote(event.getSessionId()));
+        } catch (TaskRejectedException e) {
+            log.warn("Waitlist promotion queue is full, seat of session {} given back", event.getSessionId());
+            this.seatReservationService.releaseNow(event.getSessionId());
+        }
+    }
+
+    private void promote(Long sessionId) {
+        try {
+            this.waitlistService.promoteNext(sessionId);
+        } catch (ConflictException e) {
+            // The session was full after all; its counter is recounted, there is no seat to give back
+            log.warn("Session {} is full, nobody promoted from its waitlist", sessionId);
+        } catch (RuntimeException e) {
+            log.error("Waitlist promotion failed for session {}", sessionId, e);
+            this.seatReservationService.releaseNow(sessionId);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class WaitlistService {
+    private static final int MAX_PROMOTION_ATTEMPTS = 10;
+
+    private final WaitlistRepository waitlistRepository;
+
+    private final SessionRepository sessionRepository;
+
+    private final UserRepository userRepository;
+
+    private final SeatReservationService seatReservationService;
+
+    public WaitlistService(WaitlistRepository waitlistRepository,
+                           SessionRepository sessionRepository,
+                           UserRepository userRepository,
+                           SeatReservationService seatReservationService) {
+        this.waitlistRepository = waitlistRepository;
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.seatReservationService = seatReservationService;
+    }
+
+    @Transactional
+    public void join(Long sessionId, Long userId) {
+        Session session = this.sessionRepository.findById(sessionId).orElse(null);
+        if (session == null || !this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+
+        // Only full sessions have a waitlist, and participants or waiting users have nothing to wait for
+        if (this.seatReservationService.hasSeatLeft(sessionId, session.getCapacity())
+                || this.sessionRepository.countParticipation(sessionId, userId) > 0
+                || this.waitlistRepository.existsBySessionIdAndUserId(sessionId, userId)) {
+            throw new BadRequestException();
+        }
+
+        try {
+            if (this.waitlistRepository.addEntry(sessionId, userId) == 0) {
+                throw new BadRequestException();
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Unique (session_id, user_id) key: a concurrent join of the same user won
+            throw new BadRequestException();
+        }
+    }
+
+    @Transactional
+    public void leave(Long sessionId, Long userId) {
+        if (this.waitlistRepository.removeEntry(sessionId, userId) > 0) {
+            return;
+        }
+
+        if (!this.sessionRepository.existsById(sessionId)) {
+            throw new NotFoundException();
+        }
+
+        throw new BadRequestException();
+    }
+
+    /**
+     * Hands one freed seat to the head of the waitlist, or gives it back when nobody is waiting.
+     * The caller owns that seat: it is still counted as taken when this method is called.
+     * Concurrent promotions of the same session each claim a distinct entry.
+     * <p>
+     * Runs at READ COMMITTED: under a REPEATABLE READ snapshot an entry claimed by a concurrent promotion would be
+     * read again on every attempt. The attempts are bounded all the same, the seat is given back when they run out.
+     *
+     * @throws ConflictException when PARTICIPATE is already full, i.e. the freed seat was not free after all;
+     * the counter is recounted and the claimed entry stays on the waitlist
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void promoteNext(Long sessionId) {
+        for (int attempt = 0; attempt < MAX_PROMOTION_ATTEMPTS; attempt++) {
+            WaitlistEntry head = this.waitlistRepository.findFirstBySessionIdOrderByIdAsc(sessionId).orElse(null);
+            if (head == null) {
+                break;
+            }
+
+            if (this.waitlistRepository.claim(head.getId()) == 0
+                    || this.sessionRepository.countParticipation(sessionId, head.getUserId()) > 0) {
+                // Claimed by another promotion, or the user enrolled directly in the meantime
+                continue;
+            }
+
+            if (this.sessionRepository.addParticipant(sessionId, head.getUserId()) == 0) {
+                this.seatReservationService.recount(sessionId);
+                throw new ConflictException();
+            }
+            return;
+        }
+
+        this.seatReservationService.release(sessionId);
+    }
+}
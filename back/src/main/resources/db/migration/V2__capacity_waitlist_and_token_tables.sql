@@ -0,0 +1,47 @@
+-- Session capacity, the waitlist, the JWT signing keys and the refresh and revoked tokens, with the index of the
+-- keyset-paginated session listing. PARTICIPATE gets its key in V3, once duplicate rows are removed.
+
+ALTER TABLE SESSIONS ADD COLUMN capacity INT;
+
+CREATE TABLE WAITLIST (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  session_id INT NOT NULL,
+  user_id INT NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT uk_waitlist_session_user UNIQUE (session_id, user_id)
+);
+
+CREATE TABLE JWT_SIGNING_KEYS (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  kid VARCHAR(64) NOT NULL,
+  algorithm VARCHAR(10) NOT NULL,
+  public_key VARCHAR(2048) NOT NULL,
+  private_key VARCHAR(4096) NOT NULL,
+  activates_at DATETIME NOT NULL,
+  CONSTRAINT uk_jwt_signing_keys_kid UNIQUE (kid)
+);
+
+CREATE TABLE REFRESH_TOKENS (
+  family_id VARCHAR(36) PRIMARY KEY,
+  user_id INT NOT NULL,
+  token_hash CHAR(64) NOT NULL,
+  expires_at DATETIME NOT NULL
+);
+
+CREATE TABLE REVOKED_TOKENS (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  token_key VARCHAR(64) NOT NULL,
+  revoked_at DATETIME(6) NOT NULL,
+  expires_at DATETIME NOT NULL
+);
+
+CREATE INDEX idx_waitlist_session_id ON WAITLIST (session_id, id);
+CREATE INDEX idx_refresh_tokens_user_id ON REFRESH_TOKENS (user_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON REFRESH_TOKENS (expires_at);
+CREATE INDEX idx_revoked_tokens_revoked_at ON REVOKED_TOKENS (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON REVOKED_TOKENS (expires_at);
+CREATE INDEX idx_sessions_date_id ON SESSIONS (date, id);
+
+ALTER TABLE WAITLIST ADD FOREIGN KEY (user_id) REFERENCES USERS (id) ON DELETE CASCADE;
+ALTER TABLE WAITLIST ADD FOREIGN KEY (session_id) REFERENCES SESSIONS (id) ON DELETE CASCADE;
+ALTER TABLE REFRESH_TOKENS ADD FOREIGN KEY (user_id) REFERENCES USERS (id) ON DELETE CASCADE;
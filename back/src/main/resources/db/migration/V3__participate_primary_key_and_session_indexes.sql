@@ -0,0 +1,26 @@
+-- PARTICIPATE had no key and may hold duplicate or incomplete rows. The table is rebuilt rather than altered:
+-- copying the distinct complete rows deduplicates it, and works the same on MySQL, where the nullability of a
+-- foreign key column cannot be changed in place, and on H2.
+CREATE TABLE PARTICIPATE_NEW (
+  user_id INT NOT NULL,
+  session_id INT NOT NULL,
+  CONSTRAINT pk_participate PRIMARY KEY (session_id, user_id)
+);
+
+INSERT INTO PARTICIPATE_NEW (session_id, user_id)
+SELECT DISTINCT session_id, user_id
+FROM PARTICIPATE
+WHERE session_id IS NOT NULL AND user_id IS NOT NULL;
+
+DROP TABLE PARTICIPATE;
+
+ALTER TABLE PARTICIPATE_NEW RENAME TO PARTICIPATE;
+
+-- The primary key serves the lookups by session; "my sessions" looks up by user
+CREATE INDEX idx_participate_user_id ON PARTICIPATE (user_id, session_id);
+
+ALTER TABLE PARTICIPATE ADD CONSTRAINT fk_participate_user FOREIGN KEY (user_id) REFERENCES USERS (id);
+ALTER TABLE PARTICIPATE ADD CONSTRAINT fk_participate_session FOREIGN KEY (session_id) REFERENCES SESSIONS (id);
+
+-- Sessions of a teacher, e.g. when a teacher is deleted or their sessions are listed
+CREATE INDEX idx_sessions_teacher_id ON SESSIONS (teacher_id);
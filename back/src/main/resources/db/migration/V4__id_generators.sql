@@ -0,0 +1,11 @@
+-- Ids of SESSIONS, TEACHERS and USERS, handed out by Hibernate in blocks of 50 (pooled-lo table generator):
+-- next_val is the first id of the next block. Each counter starts after the rows already there.
+-- Rows inserted outside the application must take their ids from here too, or move next_val past them.
+CREATE TABLE ID_GENERATORS (
+  sequence_name VARCHAR(64) NOT NULL PRIMARY KEY,
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO ID_GENERATORS (sequence_name, next_val) SELECT 'SESSIONS', COALESCE(MAX(id), 0) + 1 FROM SESSIONS;
+INSERT INTO ID_GENERATORS (sequence_name, next_val) SELECT 'TEACHERS', COALESCE(MAX(id), 0) + 1 FROM TEACHERS;
+INSERT INTO ID_GENERATORS (sequence_name, next_val) SELECT 'USERS', COALESCE(MAX(id), 0) + 1 FROM USERS;
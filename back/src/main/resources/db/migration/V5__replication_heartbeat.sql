@@ -0,0 +1,8 @@
+-- Heartbeat written to the primary and read back from the read replica to measure its lag, see ReplicaLagMonitor.
+-- beat_at is in epoch milliseconds.
+CREATE TABLE REPLICATION_HEARTBEAT (
+  id INT NOT NULL PRIMARY KEY,
+  beat_at BIGINT NOT NULL
+);
+
+INSERT INTO REPLICATION_HEARTBEAT (id, beat_at) VALUES (1, 0);
@@ -0,0 +1,108 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.security.jwt.HmacJwtKey;
+import com.openclassrooms.starterjwt.security.jwt.JwtEngine;
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyResolver;
+import com.openclassrooms.starterjwt.security.jwt.RsaJwtKey;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the jjwt code path JwtUtils used to take with {@link JwtEngine}, for token issuance and for the
+ * per-request verification (validate then read the subject with jjwt, a single verify with the engine),
+ * and the cost of the RS256 keys the engine signs with against the legacy HS512 secret.
+ * <p>
+ * Run from the test classpath, e.g. {@code mvn test-compile exec:java -Dexec.mainClass=...JwtBenchmark
+ * -Dexec.classpathScope=test}, or from the IDE.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    private static final String SECRET = "openclassrooms";
+
+    private JwtEngine jwtEngine;
+
+    private String token;
+
+    private JwtEngine rsaEngine;
+
+    private String rsaToken;
+
+    @Setup
+    public void setUp() {
+        jwtEngine = new JwtEngine(JwtKeyResolver.single(new HmacJwtKey(TextCodec.BASE64.decode(SECRET))));
+        token = jwtEngine.sign(claims());
+        rsaEngine = new JwtEngine(JwtKeyResolver.single(RsaJwtKey.generate(2048, Instant.now())));
+        rsaToken = rsaEngine.sign(claims());
+    }
+
+    @Benchmark
+    public String jjwtSign() {
+        return Jwts.builder()
+                .setClaims(claims())
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String engineSign() {
+        return jwtEngine.sign(claims());
+    }
+
+    @Benchmark
+    public String jjwtValidateThenParse() {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String engineVerify() {
+        Claims claims = jwtEngine.verify(token);
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String engineRsaSign() {
+        return rsaEngine.sign(claims());
+    }
+
+    @Benchmark
+    public String engineRsaVerify() {
+        Claims claims = rsaEngine.verify(rsaToken);
+        return claims.getSubject();
+    }
+
+    private static Map<String, Object> claims() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(Claims.SUBJECT, "yoga@studio.com");
+        claims.put("id", 1L);
+        claims.put("firstName", "Admin");
+        claims.put("lastName", "Admin");
+        claims.put("admin", true);
+        claims.put(Claims.ISSUED_AT, now / 1000);
+        claims.put(Claims.EXPIRATION, (now + 86400000L) / 1000);
+
+        return claims;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+
+import javax.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the security filter chains alone: the request stops where the controller would be called.
+ * Compares the public chain (JWKS, and the login with its rate limiter) with the protected chain, which verifies
+ * the JWT of every request.
+ * <p>
+ * Starts the application with the test profile. Run from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=...SecurityFilterChainBenchmark -Dexec.classpathScope=test},
+ * or from the IDE.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SecurityFilterChainBenchmark {
+    private static final FilterChain CONTROLLER = (request, response) -> { };
+
+    private static final byte[] LOGIN_BODY = "{\"email\":\"yoga@studio.com\",\"password\":\"test!1234\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private ConfigurableApplicationContext context;
+
+    private FilterChainProxy filterChainProxy;
+
+    private String bearer;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN",
+                        // Measure the login chain, not the rejection of a depleted bucket
+                        "oc.app.loginRateLimit.ip.burst=1000000", "oc.app.loginRateLimit.ip.permitsPerMinute=2147483647",
+                        "oc.app.loginRateLimit.email.burst=1000000", "oc.app.loginRateLimit.email.permitsPerMinute=2147483647")
+                .run();
+        filterChainProxy = context.getBean("springSecurityFilterChain", FilterChainProxy.class);
+        bearer = "Bearer " + context.getBean(JwtUtils.class).generateJwtToken(UserDetailsImpl.builder()
+                .id(1L)
+                .username("yoga@studio.com")
+                .firstName("Admin")
+                .lastName("Admin")
+                .admin(true)
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse publicChainJwks() throws Exception {
+        return filter(request("GET", "/.well-known/jwks.json"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse publicChainLogin() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/auth/login");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(LOGIN_BODY);
+
+        return filter(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse protectedChainWithToken() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/session");
+        request.addHeader(HttpHeaders.AUTHORIZATION, bearer);
+
+        return filter(request);
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChainProxy.doFilter(request, response, CONTROLLER);
+
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr("10.0.0.1");
+
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SecurityFilterChainBenchmark.class.getSimpleName()).build()).run();
+    }
+}
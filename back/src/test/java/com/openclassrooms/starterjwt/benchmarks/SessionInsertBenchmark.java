@@ -0,0 +1,157 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts 100k sessions in one transaction the way Hibernate does with each id strategy: one insert and round trip
+ * per row reading back the IDENTITY key, or batches of 50 with ids reserved in blocks from ID_GENERATORS (pooled-lo).
+ * <p>
+ * Runs against an in-memory H2 in MySQL mode by default, where a batch is still executed row by row, so the gap is
+ * mostly the one of the statements saved. The network round trips are what batching removes: point
+ * {@code -Dbenchmark.jdbcUrl} (and {@code benchmark.jdbcUser}, {@code benchmark.jdbcPassword}) at an empty MySQL
+ * database with {@code rewriteBatchedStatements=true} to measure them. The schema is created with the application
+ * migrations.
+ * <p>
+ * Run from the test classpath, e.g. {@code mvn test-compile exec:java -Dexec.mainClass=...SessionInsertBenchmark
+ * -Dexec.classpathScope=test}, or from the IDE.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionInsertBenchmark {
+    private static final int ROWS = 100_000;
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final String INSERT = "INSERT INTO SESSIONS (name, description, date, teacher_id) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_WITH_ID = "INSERT INTO SESSIONS (id, name, description, date, teacher_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final String url = System.getProperty("benchmark.jdbcUrl", "jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+    private final String user = System.getProperty("benchmark.jdbcUser", "sa");
+
+    private final String password = System.getProperty("benchmark.jdbcPassword", "");
+
+    private Connection connection;
+
+    private Connection generatorConnection;
+
+    private long teacherId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Flyway.configure().dataSource(url, user, password).load().migrate();
+        connection = DriverManager.getConnection(url, user, password);
+        generatorConnection = DriverManager.getConnection(url, user, password);
+        generatorConnection.setAutoCommit(false);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO TEACHERS (last_name, first_name) VALUES ('Bench', 'Mark')", Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                teacherId = keys.getLong(1);
+            }
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Iteration)
+    public void deleteSessions() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM PARTICIPATE");
+            statement.executeUpdate("DELETE FROM SESSIONS");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        generatorConnection.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public long identityRowByRow() throws SQLException {
+        long lastId = 0;
+        try (PreparedStatement insert = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                bind(insert, 1, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+
+        return lastId;
+    }
+
+    @Benchmark
+    public long pooledLoBatched() throws SQLException {
+        long nextId = 0;
+        long blockEnd = 0;
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_WITH_ID)) {
+            for (int i = 0; i < ROWS; i++) {
+                if (nextId == blockEnd) {
+                    nextId = reserveBlock();
+                    blockEnd = nextId + BATCH_SIZE;
+                }
+                insert.setLong(1, nextId++);
+                bind(insert, 2, i);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        return nextId;
+    }
+
+    /**
+     * Reserves the next block of session ids in its own transaction, as Hibernate's table generator does.
+     */
+    private long reserveBlock() throws SQLException {
+        long first;
+        try (PreparedStatement select = generatorConnection.prepareStatement(
+                "SELECT next_val FROM ID_GENERATORS WHERE sequence_name = 'SESSIONS' FOR UPDATE");
+             ResultSet resultSet = select.executeQuery()) {
+            resultSet.next();
+            first = resultSet.getLong(1);
+        }
+        try (PreparedStatement update = generatorConnection.prepareStatement(
+                "UPDATE ID_GENERATORS SET next_val = ? WHERE sequence_name = 'SESSIONS'")) {
+            update.setLong(1, first + BATCH_SIZE);
+            update.executeUpdate();
+        }
+        generatorConnection.commit();
+
+        return first;
+    }
+
+    private void bind(PreparedStatement insert, int firstIndex, int row) throws SQLException {
+        insert.setString(firstIndex, "Session " + row);
+        insert.setString(firstIndex + 1, "Benchmark session");
+        insert.setTimestamp(firstIndex + 2, new Timestamp(System.currentTimeMillis()));
+        insert.setLong(firstIndex + 3, teacherId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SessionInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
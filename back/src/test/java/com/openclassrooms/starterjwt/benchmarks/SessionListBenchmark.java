@@ -0,0 +1,84 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reads 10k sessions for the listing endpoints: as managed entities mapped to DTOs afterwards, the path they used to
+ * take, against the summary projection that builds the DTOs in the query. Run with the GC profiler, which reports
+ * the memory allocated per listing as {@code gc.alloc.rate.norm}.
+ * <p>
+ * Starts the application with the test profile. Run from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=...SessionListBenchmark -Dexec.classpathScope=test},
+ * or from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionListBenchmark {
+    private static final int ROWS = 10_000;
+
+    private ConfigurableApplicationContext context;
+
+    private SessionService sessionService;
+
+    private SessionMapper sessionMapper;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN", "spring.jpa.show-sql=false")
+                .run();
+        sessionService = context.getBean(SessionService.class);
+        sessionMapper = context.getBean(SessionMapper.class);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{"Session " + i, "Benchmark session", new Timestamp(System.currentTimeMillis() + i * 60000L), 1L});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO SESSIONS (name, description, date, teacher_id) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SessionDto> entities() {
+        return sessionService.findAll().stream().map(sessionMapper::toSummaryDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<SessionDto> projection() {
+        return sessionService.findAllSummaries();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SessionListBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.integrations;
+
+import com.openclassrooms.starterjwt.config.ReplicaLagMonitor;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two H2 databases stand in for the primary and the replica. Nothing replicates between them: the replica holds a
+ * teacher the primary does not have, which tells where a read was served from, and the tests set its heartbeat.
+ */
+@SpringBootTest(properties = "oc.app.datasource.replica.heartbeatIntervalMs=3600000")
+@ActiveProfiles("test")
+public class ReadReplicaRoutingIT {
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "password"));
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "password").load().migrate();
+        REPLICA.update("INSERT INTO TEACHERS (last_name, first_name) VALUES ('Replica', 'Only')");
+        registry.add("oc.app.datasource.replica.url", () -> REPLICA_URL);
+    }
+
+
+    @Test
+    void findAll_ReplicaUpToDate_ReadsReplica() {
+        replicaHeartbeat(System.currentTimeMillis());
+
+        assertTrue(teacherLastNames(true).contains("Replica"));
+        // Repository finders called outside of a transaction are read-only as well
+        assertTrue(teacherRepository.findAll().stream().anyMatch(teacher -> "Replica".equals(teacher.getLastName())));
+    }
+
+    @Test
+    void findAll_ReadWriteTransaction_ReadsPrimary() {
+        replicaHeartbeat(System.currentTimeMillis());
+
+        assertFalse(teacherLastNames(false).contains("Replica"));
+    }
+
+    @Test
+    void findAll_ReplicaLagging_ReadsPrimary() {
+        replicaHeartbeat(System.currentTimeMillis() - 60000);
+
+        assertFalse(replicaLagMonitor.isReplicaAvailable());
+        assertFalse(teacherLastNames(true).contains("Replica"));
+    }
+
+    private void replicaHeartbeat(long beatAt) {
+        REPLICA.update("UPDATE REPLICATION_HEARTBEAT SET beat_at = ? WHERE id = 1", beatAt);
+        replicaLagMonitor.check();
+    }
+
+    private List<String> teacherLastNames(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        transaction.setReadOnly(readOnly);
+
+        return transaction.execute(status -> teacherRepository.findAll().stream()
+                .map(Teacher::getLastName)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.starterjwt.integrations;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class SchemaMigrationIT {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+
+    @Test
+    void migrate_AppliesEveryMigration() {
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals("5", flyway.info().current().getVersion().getVersion());
+    }
+
+    @Test
+    void participate_DuplicateParticipation_IsRejected() {
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (1, 1)"));
+    }
+
+    @Test
+    void participate_IncompleteParticipation_IsRejected() {
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (NULL, 1)"));
+    }
+
+    @Test
+    void migrate_DatabaseFromOriginalScript_GetsEveryLaterChange() {
+        String url = "jdbc:h2:mem:script-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        // Version 1 is the schema of ressources/sql/script.sql, which such databases are baselined at
+        Flyway.configure().dataSource(url, "sa", "").target("1").load().migrate();
+        JdbcTemplate legacy = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        legacy.update("INSERT INTO TEACHERS (first_name, last_name) VALUES ('Margot', 'DELAHAYE')");
+        legacy.update("INSERT INTO USERS (first_name, last_name, admin, email, password) VALUES ('Admin', 'Admin', true, 'yoga@studio.com', 'hash')");
+        legacy.update("INSERT INTO SESSIONS (name, description, date, teacher_id) VALUES ('Yoga', 'Morning', CURRENT_TIMESTAMP, 1)");
+        legacy.update("INSERT INTO PARTICIPATE (user_id, session_id) VALUES (1, 1), (1, 1), (NULL, 1)");
+
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+
+        assertEquals(1, legacy.queryForObject("SELECT COUNT(*) FROM PARTICIPATE", Integer.class));
+        assertNull(legacy.queryForObject("SELECT capacity FROM SESSIONS WHERE id = 1", Integer.class));
+        assertEquals(0, legacy.queryForObject("SELECT COUNT(*) FROM WAITLIST", Integer.class));
+        assertEquals(0, legacy.queryForObject("SELECT COUNT(*) FROM JWT_SIGNING_KEYS", Integer.class));
+        assertEquals(0, legacy.queryForObject("SELECT COUNT(*) FROM REFRESH_TOKENS", Integer.class));
+        assertEquals(0, legacy.queryForObject("SELECT COUNT(*) FROM REVOKED_TOKENS", Integer.class));
+    }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.starterjwt.integrations;
+
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.EnrolmentResult;
+import com.openclassrooms.starterjwt.payload.response.EnrolmentResult.Status;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.services.EnrolmentService;
+import com.openclassrooms.starterjwt.services.SeatReservationService;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Not transactional: the seat taken "through another node" must be committed, as it would be in production.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SeatCapacityIT {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private EnrolmentService enrolmentService;
+
+    @Autowired
+    private SeatReservationService seatReservationService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        Session session = sessionRepository.save(new Session().setName("Last seat").setDate(new Date())
+                .setDescription("One seat, two nodes").setCapacity(1).setTeacher(teacherRepository.getById(1L)));
+        sessionId = session.getId();
+
+        // This node counts the only seat as free, then another node takes it
+        assertEquals(0, seatReservationService.takenSeats(sessionId));
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)", sessionId, 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM PARTICIPATE WHERE session_id = ?", sessionId);
+        sessionRepository.deleteById(sessionId);
+    }
+
+
+    @Test
+    void participate_SeatTakenThroughAnotherNode_RefusesAndRecounts() {
+        assertThrows(ConflictException.class, () -> sessionService.participate(sessionId, 2L));
+
+        assertEquals(1L, sessionRepository.countParticipants(sessionId));
+        assertEquals(1, seatReservationService.takenSeats(sessionId));
+    }
+
+    @Test
+    void enrolUsers_SeatTakenThroughAnotherNode_ReportsSessionFull() {
+        List<EnrolmentResult> results = enrolmentService.enrolUsers(sessionId, Collections.singletonList(2L));
+
+        assertEquals(Status.SESSION_FULL, results.get(0).getStatus());
+        assertEquals(1L, sessionRepository.countParticipants(sessionId));
+        assertEquals(1, seatReservationService.takenSeats(sessionId));
+    }
+}
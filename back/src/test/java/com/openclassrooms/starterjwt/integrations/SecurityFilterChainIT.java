@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.integrations;
+
+import com.openclassrooms.starterjwt.security.LoginRateLimitFilter;
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.servlet.Filter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecurityFilterChainIT {
+
+    @Autowired
+    private FilterChainProxy springSecurityFilterChain;
+
+    @Autowired
+    private List<FilterRegistrationBean<?>> filterRegistrations;
+
+
+    @Test
+    void login_PublicChain_RateLimitsWithoutParsingJwt() {
+        List<Filter> filters = filtersFor("POST", "/api/auth/login");
+
+        assertTrue(contains(filters, LoginRateLimitFilter.class));
+        assertFalse(contains(filters, AuthTokenFilter.class));
+    }
+
+    @Test
+    void jwks_PublicChain_DoesNotParseJwt() {
+        assertFalse(contains(filtersFor("GET", "/.well-known/jwks.json"), AuthTokenFilter.class));
+    }
+
+    @Test
+    void api_ProtectedChain_ParsesJwtWithoutRateLimiting() {
+        List<Filter> filters = filtersFor("GET", "/api/session");
+
+        assertTrue(contains(filters, AuthTokenFilter.class));
+        assertFalse(contains(filters, LoginRateLimitFilter.class));
+    }
+
+    @Test
+    void securityFilters_NotRegisteredAsServletFilters() {
+        filterRegistrations.stream()
+                .filter(registration -> registration.getFilter() instanceof AuthTokenFilter
+                        || registration.getFilter() instanceof LoginRateLimitFilter)
+                .forEach(registration -> assertFalse(registration.isEnabled()));
+    }
+
+    private List<Filter> filtersFor(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+
+        return springSecurityFilterChain.getFilterChains().stream()
+                .filter(chain -> chain.matches(request))
+                .findFirst()
+                .map(SecurityFilterChain::getFilters)
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static boolean contains(List<Filter> filters, Class<? extends Filter> type) {
+        return filters.stream().anyMatch(type::isInstance);
+    }
+}
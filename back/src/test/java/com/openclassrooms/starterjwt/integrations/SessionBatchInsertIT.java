@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.integrations;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.utils.JdbcBatchCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(JdbcBatchCounter.class)
+@Transactional
+public class SessionBatchInsertIT {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcBatchCounter.reset();
+    }
+
+
+    @Test
+    void saveAll_InsertsInBatches() {
+        Teacher teacher = teacherRepository.getById(1L);
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            sessions.add(new Session().setName("Batch " + i).setDate(new Date()).setDescription("Batch insert").setTeacher(teacher));
+        }
+
+        sessionRepository.saveAll(sessions);
+        sessionRepository.flush();
+
+        // One JDBC batch per 50 sessions instead of one round trip per session
+        assertEquals(3, JdbcBatchCounter.batches("insert into SESSIONS"));
+        assertEquals(0, JdbcBatchCounter.statements("insert into SESSIONS"));
+    }
+
+    @Test
+    void save_IdsFollowDataSet() {
+        long maxId = sessionRepository.findAll().stream().mapToLong(Session::getId).max().orElse(0L);
+
+        Session session = sessionRepository.save(new Session().setName("After data set").setDate(new Date())
+                .setDescription("Id generated from ID_GENERATORS").setTeacher(teacherRepository.getById(1L)));
+        sessionRepository.flush();
+
+        assertTrue(session.getId() > maxId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.integrations;
+
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.utils.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional: the cache is only cleared once a teacher write has committed.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.openclassrooms.starterjwt.utils.SqlStatementCounter")
+@ActiveProfiles("test")
+public class TeacherCacheIT {
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.TEACHERS_CACHE).clear();
+        SqlStatementCounter.reset();
+    }
+
+
+    @Test
+    void findAll_Cached_DoesNotQuery() {
+        teacherService.findAll();
+        assertEquals(1, SqlStatementCounter.count("from TEACHERS"));
+
+        SqlStatementCounter.reset();
+        teacherService.findAll();
+        teacherService.findById(1L);
+        teacherService.findById(1L);
+
+        // findById queries once, then every read is served by the cache
+        assertEquals(1, SqlStatementCounter.count("from TEACHERS"));
+    }
+
+    @Test
+    void findAllById_TeachersCachedById_DoesNotQuery() {
+        teacherService.findById(1L);
+        teacherService.findById(2L);
+        SqlStatementCounter.reset();
+
+        assertEquals(2, teacherService.findAllById(Arrays.asList(1L, 2L)).size());
+        assertEquals(0, SqlStatementCounter.count("from TEACHERS"));
+    }
+
+    @Test
+    void findAll_AfterTeacherSaved_ReturnsNewTeacher() {
+        int before = teacherService.findAll().size();
+
+        Teacher teacher = teacherRepository.save(new Teacher().setLastName("Cache").setFirstName("Eviction"));
+        try {
+            assertEquals(before + 1, teacherService.findAll().size());
+            assertTrue(teacherService.findAll().contains(teacher));
+        } finally {
+            teacherRepository.delete(teacher);
+        }
+
+        assertEquals(before, teacherService.findAll().size());
+    }
+}
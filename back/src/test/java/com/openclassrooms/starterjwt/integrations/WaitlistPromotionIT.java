@@ -0,0 +1,95 @@
+package com.openclassrooms.starterjwt.integrations;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Not transactional: the promotions run on their own threads and must see each other's commits.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class WaitlistPromotionIT {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        Session session = sessionRepository.save(new Session().setName("Waitlist race").setDate(new Date())
+                .setDescription("Two seats freed at once").setCapacity(2).setTeacher(teacherRepository.getById(1L)));
+        sessionId = session.getId();
+        waitlistRepository.save(WaitlistEntry.builder().sessionId(sessionId).userId(2L).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM WAITLIST WHERE session_id = ?", sessionId);
+        jdbcTemplate.update("DELETE FROM PARTICIPATE WHERE session_id = ?", sessionId);
+        sessionRepository.deleteById(sessionId);
+    }
+
+
+    @Test
+    void promoteNext_TwoPromotersOneEntry_EnrolsOnceAndBothFinish() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CyclicBarrier start = new CyclicBarrier(2);
+        try {
+            Future<?> first = executor.submit(() -> promoteAfter(start));
+            Future<?> second = executor.submit(() -> promoteAfter(start));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+                first.get();
+                second.get();
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1L, sessionRepository.countParticipation(sessionId, 2L));
+        assertFalse(waitlistRepository.findFirstBySessionIdOrderByIdAsc(sessionId).isPresent());
+    }
+
+    private Void promoteAfter(CyclicBarrier start) throws Exception {
+        start.await(10, TimeUnit.SECONDS);
+        waitlistService.promoteNext(sessionId);
+
+        return null;
+    }
+}
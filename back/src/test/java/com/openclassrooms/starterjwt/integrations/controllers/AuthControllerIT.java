@@ -1,17 +1,22 @@
 package com.openclassrooms.starterjwt.integrations.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshTokenRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -42,6 +47,7 @@ public class AuthControllerIT {
                         .content(loginRequestJson))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty())
                 .andExpect(jsonPath("$.type").value("Bearer"))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.username").value("yoga@studio.com"))
@@ -87,6 +93,86 @@ public class AuthControllerIT {
                 .andExpect(jsonPath("$.token").doesNotExist());
     }
 
+    @Test
+    void refreshToken_CurrentToken_ReturnsNewTokens() throws Exception {
+        String refreshToken = obtainRefreshToken();
+
+        String nextRefreshToken = objectMapper.readTree(mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenRequestJson(refreshToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.admin").value(true))
+                .andReturn().getResponse().getContentAsString()).get("refreshToken").asText();
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenRequestJson(nextRefreshToken)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void refreshToken_ReusedToken_RevokesWholeLogin() throws Exception {
+        String refreshToken = obtainRefreshToken();
+
+        String nextRefreshToken = objectMapper.readTree(mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenRequestJson(refreshToken)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("refreshToken").asText();
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenRequestJson(refreshToken)))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenRequestJson(nextRefreshToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout_ThenRefresh_ReturnsUnauthorized() throws Exception {
+        String refreshToken = obtainRefreshToken();
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenRequestJson(refreshToken)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenRequestJson(refreshToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    // Revocations only take effect once the logout commits
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void logout_WithAccessToken_RevokesAccessToken() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("yoga@studio.com");
+        loginRequest.setPassword("test!1234");
+        JsonNode login = objectMapper.readTree(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        String authorization = "Bearer " + login.get("token").asText();
+
+        mockMvc.perform(get("/api/session")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshTokenRequestJson(login.get("refreshToken").asText())))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/session")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void registerUser_ValidRequest_ReturnsSuccessMessage() throws Exception {
         SignupRequest signupRequest = new SignupRequest();
@@ -120,4 +206,25 @@ public class AuthControllerIT {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Error: Email is already taken!"));
     }
+
+    private String obtainRefreshToken() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("yoga@studio.com");
+        loginRequest.setPassword("test!1234");
+
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        return objectMapper.readTree(response).get("refreshToken").asText();
+    }
+
+    private String refreshTokenRequestJson(String refreshToken) throws Exception {
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
+        refreshTokenRequest.setRefreshToken(refreshToken);
+
+        return objectMapper.writeValueAsString(refreshTokenRequest);
+    }
 }
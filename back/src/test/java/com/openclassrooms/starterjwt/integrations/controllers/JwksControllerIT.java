@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.integrations.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Transactional
+public class JwksControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+
+    @Test
+    void jwks_Unauthenticated_ReturnsPublicKeys() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("$.keys[0].kty").value("RSA"),
+                        jsonPath("$.keys[0].alg").value("RS256"),
+                        jsonPath("$.keys[0].kid").isNotEmpty(),
+                        jsonPath("$.keys[0].d").doesNotExist());
+    }
+}
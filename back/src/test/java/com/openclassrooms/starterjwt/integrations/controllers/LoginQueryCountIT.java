@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.integrations.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.utils.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.openclassrooms.starterjwt.utils.SqlStatementCounter")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+public class LoginQueryCountIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE).clear();
+        SqlStatementCounter.reset();
+    }
+
+
+    @Test
+    void authenticateUser_ReadsUserOnce() throws Exception {
+        login();
+
+        // The authentication loads the user; the admin flag comes with it instead of a second lookup by email
+        assertEquals(1, SqlStatementCounter.count("from USERS"));
+    }
+
+    @Test
+    void authenticateUser_UserDetailsCached_DoesNotReadUser() throws Exception {
+        login();
+        SqlStatementCounter.reset();
+
+        login();
+
+        assertEquals(0, SqlStatementCounter.count("from USERS"));
+    }
+
+    private void login() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("yoga@studio.com");
+        loginRequest.setPassword("test!1234");
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.admin").value(true));
+    }
+}
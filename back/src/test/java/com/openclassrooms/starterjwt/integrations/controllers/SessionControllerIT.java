@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.integrations.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.payload.request.BulkEnrolmentRequest;
 import com.openclassrooms.starterjwt.utils.AuthUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -63,6 +65,7 @@ public class SessionControllerIT {
                         jsonPath("$.teacher_id").value(1),
                         jsonPath("$.users").isArray(),
                         jsonPath("$.users[0]").value(1),
+                        jsonPath("$.participantCount").value(1),
                         jsonPath("$.date").value("2023-01-01T09:00:00.000+00:00"),
                         jsonPath("$.createdAt").value("2023-01-01T08:00:00"),
                         jsonPath("$.updatedAt").value("2023-02-15T12:30:00")
@@ -108,6 +111,72 @@ public class SessionControllerIT {
                 );
     }
 
+    @Test
+    void findPage_FollowingNextCursor_ReturnsSessionsInDateOrder() throws Exception {
+        String response = mockMvc.perform(get("/api/session/page")
+                        .param("size", "1")
+                        .headers(adminHttpHeaders)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("$.items.length()").value(1),
+                        jsonPath("$.items[0].id").value(1),
+                        jsonPath("$.nextCursor").isNotEmpty()
+                )
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String nextCursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/session/page")
+                        .param("size", "1")
+                        .param("cursor", nextCursor)
+                        .headers(adminHttpHeaders)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("$.items.length()").value(1),
+                        jsonPath("$.items[0].id").value(2),
+                        jsonPath("$.nextCursor").doesNotExist()
+                );
+    }
+
+    @Test
+    void findPage_WithoutUsers_ReturnsParticipantCountOnly() throws Exception {
+        mockMvc.perform(get("/api/session/page")
+                        .headers(adminHttpHeaders)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("$.items[0].participantCount").value(1),
+                        jsonPath("$.items[0].users").doesNotExist(),
+                        jsonPath("$.items[1].participantCount").value(1)
+                );
+    }
+
+    @Test
+    void findPage_WithUsers_ReturnsParticipantIds() throws Exception {
+        mockMvc.perform(get("/api/session/page")
+                        .param("users", "true")
+                        .headers(adminHttpHeaders)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("$.items[0].users[0]").value(1),
+                        jsonPath("$.items[1].users[0]").value(2)
+                );
+    }
+
+    @Test
+    void findPage_MalformedCursor_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/session/page")
+                        .param("cursor", "not-a-cursor")
+                        .headers(adminHttpHeaders)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void create_ValidSession_ReturnsCreatedSession() throws Exception {
         SessionDto sessionDto = new SessionDto();
@@ -151,6 +220,22 @@ public class SessionControllerIT {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void create_UnknownUserId_ReturnsBadRequest() throws Exception {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Test create session");
+        sessionDto.setDate(Date.from(Instant.parse("2025-02-26T16:29:27.677Z")));
+        sessionDto.setTeacher_id(1L);
+        sessionDto.setDescription("Test create session description");
+        sessionDto.setUsers(Arrays.asList(1L, 999L)); // User with id 999 does not exist
+
+        mockMvc.perform(post("/api/session")
+                        .headers(adminHttpHeaders)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void update_ValidSession_ReturnsUpdatedSession() throws Exception {
         long sessionId = 1L;
@@ -274,6 +359,132 @@ public class SessionControllerIT {
                 .andExpect(jsonPath("$.users[1]").value(userId));
     }
 
+    @Test
+    void participate_AlreadyParticipating_ReturnsBadRequest() throws Exception {
+        long sessionId = 1L;
+        long userId = 1L; // User 1 already participates in session 1
+
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", sessionId, userId)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void participate_SessionFull_ReturnsConflict() throws Exception {
+        long sessionId = 2L;
+
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Pilates");
+        sessionDto.setDate(Date.from(Instant.parse("2025-02-26T16:29:27.677Z")));
+        sessionDto.setTeacher_id(2L);
+        sessionDto.setDescription("Pilates session");
+        sessionDto.setUsers(Collections.singletonList(2L));
+        sessionDto.setCapacity(1);
+
+        mockMvc.perform(put("/api/session/{id}", sessionId)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.capacity").value(1));
+
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", sessionId, 1L)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void joinWaitlist_SessionFull_ReturnsOk() throws Exception {
+        long sessionId = 2L;
+
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Pilates");
+        sessionDto.setDate(Date.from(Instant.parse("2025-02-26T16:29:27.677Z")));
+        sessionDto.setTeacher_id(2L);
+        sessionDto.setDescription("Pilates session");
+        sessionDto.setUsers(Collections.singletonList(2L));
+        sessionDto.setCapacity(1);
+
+        mockMvc.perform(put("/api/session/{id}", sessionId)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", sessionId, 1L)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", sessionId, 1L)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/api/session/{id}/waitlist/{userId}", sessionId, 1L)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void joinWaitlist_SeatsLeft_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", 1L, 2L)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void participateAll_MixedUserIds_ReturnsResultPerUser() throws Exception {
+        BulkEnrolmentRequest request = new BulkEnrolmentRequest();
+        request.setIds(Arrays.asList(1L, 2L, 999L)); // User with id 999 does not exist
+
+        mockMvc.perform(post("/api/session/{id}/participants", 1L)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("$[0].status").value("ALREADY_PARTICIPATING"),
+                        jsonPath("$[1].status").value("ENROLLED"),
+                        jsonPath("$[2].status").value("USER_NOT_FOUND")
+                );
+
+        mockMvc.perform(get("/api/session/{id}", 1L)
+                            .headers(adminHttpHeaders))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(2));
+    }
+
+    @Test
+    void participateInAll_MixedSessionIds_ReturnsResultPerSession() throws Exception {
+        BulkEnrolmentRequest request = new BulkEnrolmentRequest();
+        request.setIds(Arrays.asList(1L, 2L, 999L)); // Session with id 999 does not exist
+
+        mockMvc.perform(post("/api/session/participate/{userId}", 2L)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("$[0].status").value("ENROLLED"),
+                        jsonPath("$[1].status").value("ALREADY_PARTICIPATING"),
+                        jsonPath("$[2].status").value("SESSION_NOT_FOUND")
+                );
+    }
+
+    @Test
+    void participateAll_EmptyIds_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/session/{id}/participants", 1L)
+                            .headers(adminHttpHeaders)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new BulkEnrolmentRequest())))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void participate_SessionNotFound_ReturnsNotFound() throws Exception {
         long sessionId = 999L; // Session with id 999 does not exist
@@ -1,5 +1,6 @@
 package com.openclassrooms.starterjwt.integrations.controllers;
 
+import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.utils.AuthUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -92,6 +94,25 @@ public class UserControllerIT {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    // Revocations only take effect once the deletion commits: a throwaway user is deleted for good
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void deleteUser_UserExists_RevokesItsTokens() throws Exception {
+        JwtResponse jwtResponse = authUtil.registerAndObtainJwtResponse("revoked.user@example.com", "password123");
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(HttpHeaders.AUTHORIZATION, "Bearer " + jwtResponse.getToken());
+
+        mockMvc.perform(delete("/api/user/{id}", jwtResponse.getId())
+                        .headers(httpHeaders)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/session")
+                        .headers(httpHeaders)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void deleteUser_UnauthorizedUser_ReturnsUnauthorized() throws Exception {
         long userId = 2L; // ID of other user than the authenticated user
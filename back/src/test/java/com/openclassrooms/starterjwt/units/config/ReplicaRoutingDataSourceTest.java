@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.units.config;
+
+import com.openclassrooms.starterjwt.config.ReplicaLagMonitor;
+import com.openclassrooms.starterjwt.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replicaConnection = mock(Connection.class);
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica.getConnection()).thenReturn(replicaConnection);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+
+    @Test
+    void getConnection_ReadOnlyTransaction_UsesReplica() throws SQLException {
+        when(replicaLagMonitor.isReplicaAvailable()).thenReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransactionReplicaLagging_UsesPrimary() throws SQLException {
+        when(replicaLagMonitor.isReplicaAvailable()).thenReturn(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ReadWriteTransaction_UsesPrimary() throws SQLException {
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+}
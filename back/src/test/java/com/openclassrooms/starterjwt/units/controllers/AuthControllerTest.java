@@ -3,12 +3,17 @@ package com.openclassrooms.starterjwt.units.controllers;
 import com.openclassrooms.starterjwt.controllers.AuthController;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshTokenRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.RefreshTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -21,12 +26,12 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.Optional;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +49,12 @@ public class AuthControllerTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private JwtRevocationList jwtRevocationList;
+
     @InjectMocks
     private AuthController authController;
 
@@ -54,14 +65,18 @@ public class AuthControllerTest {
         loginRequest.setEmail("user@example.com");
         loginRequest.setPassword("password");
         Authentication authentication = mock(Authentication.class);
-        UserDetailsImpl userDetails = mock(UserDetailsImpl.class);
-        User user = new User("user@example.com", "LastName", "FirstName", "encodedPassword", false);
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("user@example.com")
+                .firstName("FirstName")
+                .lastName("LastName")
+                .admin(true)
+                .build();
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userDetails.getUsername()).thenReturn("user@example.com");
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("jwtToken");
+        when(refreshTokenService.issue(1L)).thenReturn("family.secret");
 
         ResponseEntity<?> response = authController.authenticateUser(loginRequest);
 
@@ -69,21 +84,22 @@ public class AuthControllerTest {
         JwtResponse jwtResponse = (JwtResponse) response.getBody();
         assertNotNull(jwtResponse);
         assertEquals("jwtToken", jwtResponse.getToken());
+        assertEquals("family.secret", jwtResponse.getRefreshToken());
         assertEquals("user@example.com", jwtResponse.getUsername());
+        assertEquals(true, jwtResponse.getAdmin());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
-    void authenticateUser_UserIsNull_ReturnsIncompleteJwtResponse() {
+    void authenticateUser_PrincipalWithoutAdminFlag_ReturnsNonAdmin() {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setEmail("user@example.com");
         loginRequest.setPassword("password");
         Authentication authentication = mock(Authentication.class);
-        UserDetailsImpl userDetails = mock(UserDetailsImpl.class);
+        UserDetailsImpl userDetails = UserDetailsImpl.builder().id(1L).username("user@example.com").build();
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userDetails.getUsername()).thenReturn("user@example.com");
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("jwtToken");
 
         ResponseEntity<?> response = authController.authenticateUser(loginRequest);
@@ -96,6 +112,51 @@ public class AuthControllerTest {
         assertEquals(false, jwtResponse.getAdmin());
     }
 
+    @Test
+    void refreshToken_ValidToken_ReturnsNewTokens() {
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
+        refreshTokenRequest.setRefreshToken("family.secret");
+        User user = new User("user@example.com", "LastName", "FirstName", "encodedPassword", true).setId(1L);
+
+        when(refreshTokenService.rotate("family.secret")).thenReturn(new RefreshTokenService.Rotation(user, "family.next"));
+        when(jwtUtils.generateJwtToken(any(UserDetailsImpl.class))).thenReturn("jwtToken");
+
+        ResponseEntity<?> response = authController.refreshToken(refreshTokenRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        JwtResponse jwtResponse = (JwtResponse) response.getBody();
+        assertNotNull(jwtResponse);
+        assertEquals("jwtToken", jwtResponse.getToken());
+        assertEquals("family.next", jwtResponse.getRefreshToken());
+        assertEquals(1L, jwtResponse.getId());
+        assertEquals(true, jwtResponse.getAdmin());
+    }
+
+    @Test
+    void logout_RevokesRefreshToken() {
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
+        refreshTokenRequest.setRefreshToken("family.secret");
+
+        ResponseEntity<?> response = authController.logout(refreshTokenRequest, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(refreshTokenService).revoke("family.secret");
+        verifyNoInteractions(jwtRevocationList);
+    }
+
+    @Test
+    void logout_WithAccessToken_RevokesAccessToken() {
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
+        refreshTokenRequest.setRefreshToken("family.secret");
+        Claims claims = new DefaultClaims().setId("tokenId");
+        when(jwtUtils.parseJwtClaims("jwtToken")).thenReturn(claims);
+
+        ResponseEntity<?> response = authController.logout(refreshTokenRequest, "Bearer jwtToken");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(jwtRevocationList).revokeToken(claims);
+    }
+
     @Test
     void registerUser_ValidSignupRequest_ReturnsSuccessMessage() {
         SignupRequest signupRequest = new SignupRequest();
@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.units.controllers;
+
+import com.openclassrooms.starterjwt.controllers.JwksController;
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class JwksControllerTest {
+
+    @Mock
+    private JwtKeyManager jwtKeyManager;
+
+    @InjectMocks
+    private JwksController jwksController;
+
+
+    @Test
+    void jwks_ReturnsPublishedKeysWithCacheControl() {
+        Map<String, Object> jwks = Collections.singletonMap("keys", Collections.emptyList());
+        when(jwtKeyManager.jwks()).thenReturn(jwks);
+
+        ResponseEntity<Map<String, Object>> response = jwksController.jwks();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(jwks, response.getBody());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL).contains("max-age=300"));
+    }
+}
@@ -4,7 +4,13 @@ import com.openclassrooms.starterjwt.controllers.SessionController;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.BulkEnrolmentRequest;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.response.EnrolmentResult;
+import com.openclassrooms.starterjwt.payload.response.SessionPageResponse;
+import com.openclassrooms.starterjwt.services.EnrolmentService;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -13,11 +19,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class SessionControllerTest {
@@ -28,22 +38,53 @@ public class SessionControllerTest {
     @Mock
     private SessionMapper sessionMapper;
 
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private EnrolmentService enrolmentService;
+
     @InjectMocks
     private SessionController sessionController;
 
 
     @Test
-    void findById_ValidId_ReturnsSession() {
+    void findById_ValidId_ReturnsSessionWithParticipants() {
         Long sessionId = 1L;
-        Session session = new Session();
+        Session session = Session.builder().id(sessionId).build();
         SessionDto sessionDto = new SessionDto();
+        sessionDto.setId(sessionId);
         when(sessionService.getById(sessionId)).thenReturn(session);
-        when(sessionMapper.toDto(session)).thenReturn(sessionDto);
+        when(sessionMapper.toSummaryDto(session)).thenReturn(sessionDto);
+        when(sessionService.findParticipantIds(Collections.singletonList(sessionId)))
+                .thenReturn(Collections.singletonMap(sessionId, Arrays.asList(1L, 2L)));
 
-        ResponseEntity<?> response = sessionController.findById(sessionId.toString());
+        ResponseEntity<?> response = sessionController.findById(sessionId.toString(), true);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(sessionDto, response.getBody());
+        assertEquals(Arrays.asList(1L, 2L), sessionDto.getUsers());
+        assertEquals(2L, sessionDto.getParticipantCount());
+        verify(sessionService, never()).countParticipants(any());
+    }
+
+    @Test
+    void findById_WithoutUsers_ReturnsParticipantCountOnly() {
+        Long sessionId = 1L;
+        Session session = Session.builder().id(sessionId).build();
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setId(sessionId);
+        when(sessionService.getById(sessionId)).thenReturn(session);
+        when(sessionMapper.toSummaryDto(session)).thenReturn(sessionDto);
+        when(sessionService.countParticipants(Collections.singletonList(sessionId)))
+                .thenReturn(Collections.singletonMap(sessionId, 5L));
+
+        ResponseEntity<?> response = sessionController.findById(sessionId.toString(), false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(sessionDto.getUsers());
+        assertEquals(5L, sessionDto.getParticipantCount());
+        verify(sessionService, never()).findParticipantIds(any());
     }
 
     @Test
@@ -51,42 +92,105 @@ public class SessionControllerTest {
         Long sessionId = 1L;
         when(sessionService.getById(sessionId)).thenReturn(null);
 
-        ResponseEntity<?> response = sessionController.findById(sessionId.toString());
+        ResponseEntity<?> response = sessionController.findById(sessionId.toString(), true);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
     void findById_InvalidId_ReturnsBadRequest() {
-        ResponseEntity<?> response = sessionController.findById("invalid");
+        ResponseEntity<?> response = sessionController.findById("invalid", true);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
     void findAll_SessionsExist_ReturnsListOfSessions() {
-        List<Session> sessions = Collections.singletonList(new Session());
-        List<SessionDto> sessionDtos = Collections.singletonList(new SessionDto());
-        when(sessionService.findAll()).thenReturn(sessions);
-        when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setId(1L);
+        when(sessionService.findAllSummaries()).thenReturn(Collections.singletonList(sessionDto));
 
-        ResponseEntity<?> response = sessionController.findAll();
+        ResponseEntity<?> response = sessionController.findAll(true);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(sessionDtos, response.getBody());
+        assertEquals(Collections.singletonList(sessionDto), response.getBody());
+        assertEquals(Collections.emptyList(), sessionDto.getUsers());
+        assertEquals(0L, sessionDto.getParticipantCount());
     }
 
     @Test
     void findAll_NoSessionsExist_ReturnsEmptyList() {
-        when(sessionService.findAll()).thenReturn(Collections.emptyList());
-        when(sessionMapper.toDto(Collections.emptyList())).thenReturn(Collections.emptyList());
+        when(sessionService.findAllSummaries()).thenReturn(Collections.emptyList());
 
-        ResponseEntity<?> response = sessionController.findAll();
+        ResponseEntity<?> response = sessionController.findAll(true);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(Collections.emptyList(), response.getBody());
     }
 
+    @Test
+    void findPage_MoreSessionsThanPageSize_ReturnsPageWithNextCursor() {
+        SessionDto firstDto = new SessionDto(1L, "First", new Date(1000L), 1L, "First session", null, null, null);
+        SessionDto secondDto = new SessionDto(2L, "Second", new Date(2000L), 1L, "Second session", null, null, null);
+        SessionDto thirdDto = new SessionDto(3L, "Third", new Date(3000L), 1L, "Third session", null, null, null);
+        when(sessionService.findPage(null, 3)).thenReturn(Arrays.asList(firstDto, secondDto, thirdDto));
+        when(sessionService.countParticipants(Arrays.asList(1L, 2L))).thenReturn(Collections.singletonMap(1L, 4L));
+
+        ResponseEntity<?> response = sessionController.findPage(null, "2", false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SessionPageResponse page = (SessionPageResponse) response.getBody();
+        assertNotNull(page);
+        assertEquals(Arrays.asList(firstDto, secondDto), page.getItems());
+        assertEquals(4L, firstDto.getParticipantCount());
+        assertEquals(0L, secondDto.getParticipantCount());
+        assertNull(firstDto.getUsers());
+        SessionCursor nextCursor = SessionCursor.decode(page.getNextCursor());
+        assertEquals(2L, nextCursor.getId());
+        assertEquals(2000L, nextCursor.getDate().getTime());
+    }
+
+    @Test
+    void findPage_LastPage_ReturnsPageWithoutNextCursor() {
+        SessionCursor cursor = new SessionCursor(new Date(2000L), 2L);
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setId(3L);
+        sessionDto.setDate(new Date(3000L));
+        when(sessionService.findPage(any(SessionCursor.class), eq(3))).thenReturn(Collections.singletonList(sessionDto));
+
+        ResponseEntity<?> response = sessionController.findPage(cursor.encode(), "2", false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SessionPageResponse page = (SessionPageResponse) response.getBody();
+        assertNotNull(page);
+        assertEquals(Collections.singletonList(sessionDto), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findPage_SizeAboveLimit_IsCapped() {
+        when(sessionService.findPage(null, 101)).thenReturn(Collections.emptyList());
+
+        ResponseEntity<?> response = sessionController.findPage(null, "5000", false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void findPage_InvalidSize_ReturnsBadRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST, sessionController.findPage(null, "0", false).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, sessionController.findPage(null, "invalid", false).getStatusCode());
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    void findPage_MalformedCursor_ReturnsBadRequest() {
+        ResponseEntity<?> response = sessionController.findPage("not-a-cursor", "20", false);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(sessionService);
+    }
+
     @Test
     void create_ValidSessionDto_ReturnsCreatedSession() {
         SessionDto sessionDto = new SessionDto();
@@ -190,4 +294,88 @@ public class SessionControllerTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
+
+    @Test
+    void joinWaitlist_ValidIds_ReturnsOk() {
+        ResponseEntity<?> response = sessionController.joinWaitlist("1", "2");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(waitlistService).join(1L, 2L);
+    }
+
+    @Test
+    void joinWaitlist_InvalidUserId_ReturnsBadRequest() {
+        ResponseEntity<?> response = sessionController.joinWaitlist("1", "invalid");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(waitlistService);
+    }
+
+    @Test
+    void leaveWaitlist_ValidIds_ReturnsOk() {
+        ResponseEntity<?> response = sessionController.leaveWaitlist("1", "2");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(waitlistService).leave(1L, 2L);
+    }
+
+    @Test
+    void leaveWaitlist_InvalidSessionId_ReturnsBadRequest() {
+        ResponseEntity<?> response = sessionController.leaveWaitlist("invalid", "2");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(waitlistService);
+    }
+
+    @Test
+    void participateAll_ValidId_ReturnsResults() {
+        BulkEnrolmentRequest request = new BulkEnrolmentRequest();
+        request.setIds(Arrays.asList(1L, 2L));
+        List<EnrolmentResult> results = Arrays.asList(
+                new EnrolmentResult(1L, 1L, EnrolmentResult.Status.ENROLLED),
+                new EnrolmentResult(1L, 2L, EnrolmentResult.Status.SESSION_FULL));
+        when(enrolmentService.enrolUsers(1L, request.getIds())).thenReturn(results);
+
+        ResponseEntity<?> response = sessionController.participateAll("1", request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    void participateAll_InvalidId_ReturnsBadRequest() {
+        BulkEnrolmentRequest request = new BulkEnrolmentRequest();
+        request.setIds(Collections.singletonList(1L));
+
+        ResponseEntity<?> response = sessionController.participateAll("invalid", request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(enrolmentService);
+    }
+
+    @Test
+    void participateInAll_ValidUserId_ReturnsResults() {
+        BulkEnrolmentRequest request = new BulkEnrolmentRequest();
+        request.setIds(Arrays.asList(1L, 2L));
+        List<EnrolmentResult> results = Arrays.asList(
+                new EnrolmentResult(1L, 3L, EnrolmentResult.Status.ENROLLED),
+                new EnrolmentResult(2L, 3L, EnrolmentResult.Status.SESSION_NOT_FOUND));
+        when(enrolmentService.enrolInSessions(3L, request.getIds())).thenReturn(results);
+
+        ResponseEntity<?> response = sessionController.participateInAll("3", request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    void participateInAll_InvalidUserId_ReturnsBadRequest() {
+        BulkEnrolmentRequest request = new BulkEnrolmentRequest();
+        request.setIds(Collections.singletonList(1L));
+
+        ResponseEntity<?> response = sessionController.participateInAll("invalid", request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(enrolmentService);
+    }
 }
@@ -17,7 +17,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -67,23 +67,20 @@ public class TeacherControllerTest {
 
     @Test
     void findAll_TeachersExist_ReturnsListOfTeachers() {
-        List<Teacher> teachers = Collections.singletonList(new Teacher());
         List<TeacherDto> teacherDto = Collections.singletonList(new TeacherDto());
-        when(teacherService.findAll()).thenReturn(teachers);
-        when(teacherMapper.toDto(teachers)).thenReturn(teacherDto);
+        when(teacherService.findAllDtos()).thenReturn(teacherDto);
 
         ResponseEntity<?> response = teacherController.findAll();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(teacherDto, response.getBody());
-        verify(teacherMapper).toDto(teachers);
+        verifyNoInteractions(teacherMapper);
     }
 
 
     @Test
     void findAll_NoTeachersExist_ReturnsEmptyList() {
-        when(teacherService.findAll()).thenReturn(Collections.emptyList());
-        when(teacherMapper.toDto(Collections.emptyList())).thenReturn(Collections.emptyList());
+        when(teacherService.findAllDtos()).thenReturn(Collections.emptyList());
 
         ResponseEntity<?> response = teacherController.findAll();
 
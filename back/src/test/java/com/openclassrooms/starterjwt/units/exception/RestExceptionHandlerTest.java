@@ -0,0 +1,49 @@
+package com.openclassrooms.starterjwt.units.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
+import com.openclassrooms.starterjwt.exception.RestExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RestExceptionHandlerTest {
+
+    private RestExceptionHandler restExceptionHandler;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        restExceptionHandler = new RestExceptionHandler(new ErrorResponseWriter(new ObjectMapper()));
+        request = new MockHttpServletRequest("POST", "/api/session");
+        request.setServletPath("/api/session");
+        response = new MockHttpServletResponse();
+    }
+
+
+    @Test
+    void handleBadRequest_WritesStatusAndMessage() throws Exception {
+        restExceptionHandler.handleBadRequest(new BadRequestException("Unknown user ids: [42]"), request, response);
+
+        assertEquals(400, response.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"Unknown user ids: [42]\",\"path\":\"/api/session\"}",
+                response.getContentAsString());
+    }
+
+    @Test
+    void handleNotFound_OmitsMissingMessage() throws Exception {
+        restExceptionHandler.handleNotFound(request, response);
+
+        assertEquals(404, response.getStatus());
+        assertEquals("{\"status\":404,\"error\":\"Not Found\",\"path\":\"/api/session\"}", response.getContentAsString());
+    }
+}
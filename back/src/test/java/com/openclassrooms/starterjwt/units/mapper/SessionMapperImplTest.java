@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.units.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
@@ -17,10 +18,11 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class SessionMapperImplTest {
@@ -49,14 +51,13 @@ public class SessionMapperImplTest {
 
         Teacher teacher = new Teacher();
         teacher.setId(1L);
-        when(teacherService.findById(1L)).thenReturn(teacher);
+        when(teacherService.findAllById(Collections.singleton(1L))).thenReturn(Collections.singletonList(teacher));
 
         User user1 = new User();
         user1.setId(1L);
         User user2 = new User();
         user2.setId(2L);
-        when(userService.findById(1L)).thenReturn(user1);
-        when(userService.findById(2L)).thenReturn(user2);
+        when(userService.findAllById(new HashSet<>(Arrays.asList(1L, 2L)))).thenReturn(Arrays.asList(user2, user1));
 
         Session session = sessionMapper.toEntity(sessionDto);
 
@@ -66,29 +67,56 @@ public class SessionMapperImplTest {
                 () -> assertEquals(sessionDto.getDate(), session.getDate()),
                 () -> assertEquals(sessionDto.getTeacher_id(), session.getTeacher().getId()),
                 () -> assertEquals(sessionDto.getDescription(), session.getDescription()),
-                () -> assertEquals(sessionDto.getUsers().size(), session.getUsers().size()),
+                () -> assertEquals(Arrays.asList(user1, user2), session.getUsers()),
                 () -> assertEquals(sessionDto.getCreatedAt(), session.getCreatedAt()),
                 () -> assertEquals(sessionDto.getUpdatedAt(), session.getUpdatedAt())
         );
     }
 
     @Test
-    void toEntity_ValidUserIdsWithNullUserInList_ReturnsSessionWithNullUserInList() {
+    void toEntity_UnknownUserId_ThrowsBadRequestException() {
         SessionDto sessionDto = new SessionDto();
         sessionDto.setUsers(Arrays.asList(1L, 2L));
 
         User user1 = new User();
         user1.setId(1L);
-        when(userService.findById(1L)).thenReturn(user1);
-        when(userService.findById(2L)).thenReturn(null);
+        when(userService.findAllById(new HashSet<>(Arrays.asList(1L, 2L)))).thenReturn(Collections.singletonList(user1));
 
-        Session session = sessionMapper.toEntity(sessionDto);
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> sessionMapper.toEntity(sessionDto));
+
+        assertEquals("Unknown user ids: [2]", exception.getMessage());
+    }
+
+    @Test
+    void toEntity_SessionDtoList_ResolvesReferencesInOneBatch() {
+        SessionDto sessionDto1 = new SessionDto();
+        sessionDto1.setTeacher_id(1L);
+        sessionDto1.setUsers(Arrays.asList(1L, 2L));
+
+        SessionDto sessionDto2 = new SessionDto();
+        sessionDto2.setTeacher_id(1L);
+        sessionDto2.setUsers(Collections.singletonList(2L));
+
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        User user1 = new User();
+        user1.setId(1L);
+        User user2 = new User();
+        user2.setId(2L);
+        when(teacherService.findAllById(Collections.singleton(1L))).thenReturn(Collections.singletonList(teacher));
+        when(userService.findAllById(new HashSet<>(Arrays.asList(1L, 2L)))).thenReturn(Arrays.asList(user1, user2));
+
+        List<Session> sessions = sessionMapper.toEntity(Arrays.asList(sessionDto1, sessionDto2));
 
         assertAll(
-                () -> assertEquals(2, session.getUsers().size()),
-                () -> assertTrue(session.getUsers().contains(user1)),
-                () -> assertNull(session.getUsers().get(1))
+                () -> assertSame(teacher, sessions.get(0).getTeacher()),
+                () -> assertSame(teacher, sessions.get(1).getTeacher()),
+                () -> assertEquals(Arrays.asList(user1, user2), sessions.get(0).getUsers()),
+                () -> assertEquals(Collections.singletonList(user2), sessions.get(1).getUsers())
         );
+        verify(teacherService, times(1)).findAllById(any());
+        verify(userService, times(1)).findAllById(any());
+        verifyNoMoreInteractions(teacherService, userService);
     }
 
     @Test
@@ -172,11 +200,38 @@ public class SessionMapperImplTest {
                 () -> assertEquals(session.getTeacher().getId(), sessionDto.getTeacher_id()),
                 () -> assertEquals(session.getDescription(), sessionDto.getDescription()),
                 () -> assertEquals(session.getUsers().size(), sessionDto.getUsers().size()),
+                () -> assertEquals(2L, sessionDto.getParticipantCount()),
                 () -> assertEquals(session.getCreatedAt(), sessionDto.getCreatedAt()),
                 () -> assertEquals(session.getUpdatedAt(), sessionDto.getUpdatedAt())
         );
     }
 
+    @Test
+    void toSummaryDto_ValidSession_DoesNotReadParticipants() {
+        Session session = mock(Session.class);
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        when(session.getId()).thenReturn(1L);
+        when(session.getName()).thenReturn("Session 1");
+        when(session.getTeacher()).thenReturn(teacher);
+
+        SessionDto sessionDto = sessionMapper.toSummaryDto(session);
+
+        assertAll(
+                () -> assertEquals(1L, sessionDto.getId()),
+                () -> assertEquals("Session 1", sessionDto.getName()),
+                () -> assertEquals(1L, sessionDto.getTeacher_id()),
+                () -> assertNull(sessionDto.getUsers()),
+                () -> assertNull(sessionDto.getParticipantCount())
+        );
+        verify(session, never()).getUsers();
+    }
+
+    @Test
+    void toSummaryDto_NullSession_ReturnsNull() {
+        assertNull(sessionMapper.toSummaryDto(null));
+    }
+
     @Test
     void toDto_NullSession_ReturnsNull() {
         SessionDto sessionDto = sessionMapper.toDto((Session) null);
@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.units.security;
+
+import com.openclassrooms.starterjwt.security.BCryptCostCalibrator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BCryptCostCalibratorTest {
+
+    @Test
+    void strengthFor_FastHardware_DoublesUpToTarget() {
+        // 50 ms at 10, so 100 ms at 11 and 200 ms at 12, 400 ms at 13 is over the target
+        assertEquals(12, BCryptCostCalibrator.strengthFor(Duration.ofMillis(50).toNanos(), Duration.ofMillis(250), 10, 14));
+    }
+
+    @Test
+    void strengthFor_SlowHardware_KeepsMinStrength() {
+        assertEquals(10, BCryptCostCalibrator.strengthFor(Duration.ofMillis(400).toNanos(), Duration.ofMillis(250), 10, 14));
+    }
+
+    @Test
+    void strengthFor_VeryFastHardware_CapsAtMaxStrength() {
+        assertEquals(14, BCryptCostCalibrator.strengthFor(Duration.ofMillis(1).toNanos(), Duration.ofMillis(250), 10, 14));
+    }
+
+    @Test
+    void calibrate_ReturnsStrengthWithinBounds() {
+        int strength = BCryptCostCalibrator.calibrate(Duration.ofMillis(50), 4, 6);
+
+        assertTrue(strength >= 4 && strength <= 6);
+    }
+
+    @Test
+    void calibrate_InvalidBounds_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> BCryptCostCalibrator.calibrate(Duration.ofMillis(250), 12, 10));
+        assertThrows(IllegalArgumentException.class, () -> BCryptCostCalibrator.calibrate(Duration.ofMillis(250), 3, 10));
+    }
+}
@@ -0,0 +1,111 @@
+package com.openclassrooms.starterjwt.units.security;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import com.openclassrooms.starterjwt.security.BulkheadPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkheadPasswordEncoderTest {
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ThreadPoolTaskExecutor executor;
+
+    private BulkheadPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        passwordEncoder = new BulkheadPasswordEncoder(delegate, executor, meterRegistry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+
+    @Test
+    void encode_DelegatesOnPoolAndRecordsLatency() {
+        when(delegate.encode("password")).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith(executor.getThreadNamePrefix()));
+            return "hash";
+        });
+
+        assertEquals("hash", passwordEncoder.encode("password"));
+        assertEquals(1, meterRegistry.get("auth.password.hashing").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void matches_DelegatesAndRecordsLatency() {
+        when(delegate.matches("password", "hash")).thenReturn(true);
+
+        assertTrue(passwordEncoder.matches("password", "hash"));
+        assertEquals(1, meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void matches_DelegateThrows_PropagatesException() {
+        when(delegate.matches("password", "hash")).thenThrow(new IllegalArgumentException("bad hash"));
+
+        assertThrows(IllegalArgumentException.class, () -> passwordEncoder.matches("password", "hash"));
+    }
+
+    @Test
+    void matches_PoolAndQueueFull_ThrowsServiceUnavailable() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches("slow", "hash")).thenAnswer(invocation -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        Thread caller = new Thread(() -> passwordEncoder.matches("slow", "hash"));
+        caller.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.submit(() -> { });
+
+        try {
+            ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                    () -> passwordEncoder.matches("other", "hash"));
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+            assertEquals("2", exception.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            assertEquals(1, meterRegistry.get("auth.password.rejected").counter().count());
+            assertEquals(1, meterRegistry.get("auth.password.queue.depth").gauge().value());
+        } finally {
+            release.countDown();
+            caller.join();
+        }
+    }
+
+    @Test
+    void upgradeEncoding_DelegatesInline() {
+        when(delegate.upgradeEncoding("hash")).thenReturn(true);
+
+        assertTrue(passwordEncoder.upgradeEncoding("hash"));
+    }
+}
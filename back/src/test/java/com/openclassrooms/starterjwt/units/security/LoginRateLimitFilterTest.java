@@ -0,0 +1,159 @@
+package com.openclassrooms.starterjwt.units.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
+import com.openclassrooms.starterjwt.security.LoginRateLimitFilter;
+import com.openclassrooms.starterjwt.security.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginRateLimitFilterTest {
+
+    @Mock
+    private TokenBucketRateLimiter ipRateLimiter;
+
+    @Mock
+    private TokenBucketRateLimiter emailRateLimiter;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginRateLimitFilter loginRateLimitFilter;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        loginRateLimitFilter = new LoginRateLimitFilter(ipRateLimiter, emailRateLimiter,
+                new ErrorResponseWriter(new ObjectMapper()), meterRegistry);
+        response = new MockHttpServletResponse();
+    }
+
+
+    @Test
+    void doFilter_WithinLimits_PassesBodyOn() throws Exception {
+        when(ipRateLimiter.tryAcquire("10.0.0.1")).thenReturn(0L);
+        when(emailRateLimiter.tryAcquire("yoga@studio.com")).thenReturn(0L);
+
+        loginRateLimitFilter.doFilter(login("{\"email\":\" Yoga@Studio.com\",\"password\":\"test!1234\"}"), response, filterChain);
+
+        ArgumentCaptor<ServletRequest> forwarded = ArgumentCaptor.forClass(ServletRequest.class);
+        verify(filterChain).doFilter(forwarded.capture(), any(ServletResponse.class));
+        assertEquals("{\"email\":\" Yoga@Studio.com\",\"password\":\"test!1234\"}",
+                StreamUtils.copyToString(forwarded.getValue().getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doFilter_IpLimitReached_Returns429WithoutReadingBody() throws Exception {
+        when(ipRateLimiter.tryAcquire("10.0.0.1")).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+
+        loginRateLimitFilter.doFilter(login("{\"email\":\"yoga@studio.com\"}"), response, filterChain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.get("auth.login.rate_limited").tag("key", "ip").counter().count());
+        verifyNoInteractions(emailRateLimiter, filterChain);
+    }
+
+    @Test
+    void doFilter_EmailLimitReached_Returns429() throws Exception {
+        when(ipRateLimiter.tryAcquire("10.0.0.1")).thenReturn(0L);
+        when(emailRateLimiter.tryAcquire("yoga@studio.com")).thenReturn(TimeUnit.SECONDS.toNanos(12));
+
+        loginRateLimitFilter.doFilter(login("{\"email\":\"yoga@studio.com\"}"), response, filterChain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("12", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("{\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"Too many login attempts\",\"path\":\"/api/auth/login\"}",
+                response.getContentAsString());
+        assertEquals(1, meterRegistry.get("auth.login.rate_limited").tag("key", "email").counter().count());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilter_MalformedBody_LeavesItToController() throws Exception {
+        when(ipRateLimiter.tryAcquire("10.0.0.1")).thenReturn(0L);
+
+        loginRateLimitFilter.doFilter(login("not json"), response, filterChain);
+
+        verify(filterChain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        verifyNoInteractions(emailRateLimiter);
+    }
+
+    @Test
+    void doFilter_DeclaredBodyTooLarge_Returns413WithoutReadingBody() throws Exception {
+        when(ipRateLimiter.tryAcquire("10.0.0.1")).thenReturn(0L);
+        MockHttpServletRequest request = spy(login("{\"email\":\"yoga@studio.com\"}"));
+        when(request.getContentLengthLong()).thenReturn(10L * 1024 * 1024);
+
+        loginRateLimitFilter.doFilter(request, response, filterChain);
+
+        assertEquals(413, response.getStatus());
+        verify(request, never()).getInputStream();
+        verifyNoInteractions(emailRateLimiter, filterChain);
+    }
+
+    @Test
+    void doFilter_ChunkedBodyTooLarge_Returns413() throws Exception {
+        when(ipRateLimiter.tryAcquire("10.0.0.1")).thenReturn(0L);
+        MockHttpServletRequest request = spy(login("{\"email\":\"yoga@studio.com\",\"password\":\"" + repeat('x', 8 * 1024) + "\"}"));
+        when(request.getContentLengthLong()).thenReturn(-1L);
+
+        loginRateLimitFilter.doFilter(request, response, filterChain);
+
+        assertEquals(413, response.getStatus());
+        verifyNoInteractions(emailRateLimiter, filterChain);
+    }
+
+    @Test
+    void doFilter_OtherRequest_IsNotLimited() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/register");
+        request.setServletPath("/api/auth/register");
+
+        loginRateLimitFilter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(ipRateLimiter, emailRateLimiter);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+
+        return new String(chars);
+    }
+
+    private static MockHttpServletRequest login(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.units.security;
+
+import com.openclassrooms.starterjwt.security.RateLimitedLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitedLoggerTest {
+
+    @Mock
+    private Logger logger;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private RateLimitedLogger rateLimitedLogger;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitedLogger = new RateLimitedLogger(logger, 2, Duration.ofMinutes(1), now::get);
+    }
+
+
+    @Test
+    void warn_OverBudget_DropsLines() {
+        when(logger.isWarnEnabled()).thenReturn(true);
+
+        for (int i = 0; i < 5; i++) {
+            rateLimitedLogger.warn("Unauthorized error: {}", "Bad credentials");
+        }
+
+        verify(logger, times(2)).warn("Unauthorized error: {}", new Object[]{"Bad credentials"});
+    }
+
+    @Test
+    void warn_NextInterval_ReportsDroppedLines() {
+        when(logger.isWarnEnabled()).thenReturn(true);
+        for (int i = 0; i < 5; i++) {
+            rateLimitedLogger.warn("Unauthorized error: {}", "Bad credentials");
+        }
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        rateLimitedLogger.warn("Unauthorized error: {}", "Bad credentials");
+
+        verify(logger).warn(eq("{} similar log lines suppressed in the last {} s"), eq(3L), eq(60L));
+        verify(logger, times(3)).warn("Unauthorized error: {}", new Object[]{"Bad credentials"});
+    }
+
+    @Test
+    void info_LevelDisabled_DoesNotCountAgainstBudget() {
+        when(logger.isInfoEnabled()).thenReturn(false);
+        when(logger.isWarnEnabled()).thenReturn(true);
+
+        rateLimitedLogger.info("ignored {}", 1);
+        rateLimitedLogger.info("ignored {}", 2);
+        rateLimitedLogger.warn("kept {}", 1);
+        rateLimitedLogger.warn("kept {}", 2);
+
+        verify(logger).warn("kept {}", new Object[]{1});
+        verify(logger).warn("kept {}", new Object[]{2});
+    }
+}
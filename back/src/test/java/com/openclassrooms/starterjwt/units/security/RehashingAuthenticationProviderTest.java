@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.units.security;
+
+import com.openclassrooms.starterjwt.security.RehashingAuthenticationProvider;
+import com.openclassrooms.starterjwt.security.services.PasswordUpgrader;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RehashingAuthenticationProviderTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private PasswordUpgrader passwordUpgrader;
+
+    private RehashingAuthenticationProvider authenticationProvider;
+
+    private final UserDetailsImpl user = UserDetailsImpl.builder()
+            .id(1L)
+            .username("yoga@studio.com")
+            .password("$2a$10$hash")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        authenticationProvider = new RehashingAuthenticationProvider(userDetailsService, passwordEncoder, passwordUpgrader);
+        when(userDetailsService.loadUserByUsername("yoga@studio.com")).thenReturn(user);
+    }
+
+
+    @Test
+    void authenticate_OutdatedHash_SchedulesUpgrade() {
+        when(passwordEncoder.matches("test!1234", "$2a$10$hash")).thenReturn(true);
+        when(passwordUpgrader.needsUpgrade("$2a$10$hash")).thenReturn(true);
+
+        Authentication authentication = authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken("yoga@studio.com", "test!1234"));
+
+        assertSame(user, authentication.getPrincipal());
+        verify(passwordUpgrader).upgrade(user, "test!1234");
+    }
+
+    @Test
+    void authenticate_CurrentHash_DoesNotUpgrade() {
+        when(passwordEncoder.matches("test!1234", "$2a$10$hash")).thenReturn(true);
+        when(passwordUpgrader.needsUpgrade("$2a$10$hash")).thenReturn(false);
+
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken("yoga@studio.com", "test!1234"));
+
+        verify(passwordUpgrader, never()).upgrade(any(), anyString());
+    }
+
+    @Test
+    void authenticate_WrongPassword_DoesNotUpgrade() {
+        when(passwordEncoder.matches("wrong", "$2a$10$hash")).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken("yoga@studio.com", "wrong")));
+
+        verifyNoInteractions(passwordUpgrader);
+    }
+}
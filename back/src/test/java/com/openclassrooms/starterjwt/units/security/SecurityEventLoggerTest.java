@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.units.security;
+
+import com.openclassrooms.starterjwt.security.SecurityEventLogger;
+import com.openclassrooms.starterjwt.security.SecurityEventLogger.Kind;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SecurityEventLoggerTest {
+
+    @Mock
+    private Logger logger;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SecurityEventLogger securityEventLogger;
+
+    @BeforeEach
+    void setUp() {
+        when(logger.isWarnEnabled()).thenReturn(true);
+        securityEventLogger = new SecurityEventLogger(logger, meterRegistry, 2, Duration.ofMinutes(1));
+    }
+
+
+    @Test
+    void record_Flood_SamplesDetailsPerKind() {
+        for (int i = 0; i < 100; i++) {
+            securityEventLogger.record(Kind.EXPIRED_TOKEN, "JWT expired");
+        }
+        securityEventLogger.record(Kind.INVALID_SIGNATURE, "No key");
+
+        verify(logger, times(2)).warn("{}: {}", new Object[]{"expired_token", "JWT expired"});
+        verify(logger).warn("{}: {}", new Object[]{"invalid_signature", "No key"});
+        assertEquals(100, meterRegistry.get("auth.security.events").tag("kind", "expired_token").counter().count());
+    }
+
+    @Test
+    void summarize_WritesCountsOfIntervalOnce() {
+        for (int i = 0; i < 3; i++) {
+            securityEventLogger.record(Kind.EXPIRED_TOKEN, "JWT expired");
+        }
+        securityEventLogger.record(Kind.REVOKED_TOKEN, "jti");
+
+        securityEventLogger.summarize();
+        securityEventLogger.summarize();
+
+        verify(logger).warn(eq("Security events in the last {} s: {}"), anyLong(),
+                argThat(summary -> "expired_token=3, revoked_token=1".equals(summary.toString())));
+    }
+
+    @Test
+    void record_WithCause_SamplesStackTrace() {
+        IllegalStateException cause = new IllegalStateException("Unexpected");
+
+        securityEventLogger.record(Kind.AUTHENTICATION_FAILED, cause);
+
+        verify(logger).warn("{}: {}", new Object[]{"authentication_failed", "Unexpected", cause});
+    }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.units.security;
+
+import com.openclassrooms.starterjwt.security.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(123456789L);
+
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(3, 6, 100, clock::get);
+
+
+    @Test
+    void tryAcquire_WithinBurst_Permits() {
+        assertEquals(0, rateLimiter.tryAcquire("key"));
+        assertEquals(0, rateLimiter.tryAcquire("key"));
+        assertEquals(0, rateLimiter.tryAcquire("key"));
+    }
+
+    @Test
+    void tryAcquire_BurstExhausted_ReturnsWaitUntilRefill() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("key");
+        }
+
+        assertEquals(TimeUnit.SECONDS.toNanos(10), rateLimiter.tryAcquire("key"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, rateLimiter.tryAcquire("key"));
+        assertTrue(rateLimiter.tryAcquire("key") > 0);
+    }
+
+    @Test
+    void tryAcquire_IdleBucket_RefillsUpToBurstOnly() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("key");
+        }
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("key"));
+        }
+        assertTrue(rateLimiter.tryAcquire("key") > 0);
+    }
+
+    @Test
+    void tryAcquire_KeysHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("first");
+        }
+
+        assertTrue(rateLimiter.tryAcquire("first") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("second"));
+    }
+
+    @Test
+    void constructor_InvalidLimits_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 10, 100));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(10, 0, 100));
+    }
+}
@@ -1,8 +1,14 @@
 package com.openclassrooms.starterjwt.units.security.jwt;
 
+import com.openclassrooms.starterjwt.security.SecurityEventLogger;
+import com.openclassrooms.starterjwt.security.SecurityEventLogger.Kind;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +22,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -24,6 +31,7 @@ import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +43,12 @@ public class AuthTokenFilterTest {
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private JwtRevocationList jwtRevocationList;
+
+    @Mock
+    private SecurityEventLogger securityEventLogger;
+
     @Mock
     private FilterChain filterChain;
 
@@ -57,8 +71,7 @@ public class AuthTokenFilterTest {
         String token = "validToken";
         request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
 
-        when(jwtUtils.validateJwtToken(token)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(token)).thenReturn("testUser");
+        when(jwtUtils.parseJwtClaims(token)).thenReturn(new DefaultClaims().setSubject("testUser"));
 
         UserDetails userDetails = User
                 .withUsername("testUser")
@@ -73,21 +86,76 @@ public class AuthTokenFilterTest {
                 (UsernamePasswordAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
 
         assertNotNull(authentication);
-        verify(jwtUtils).validateJwtToken(token);
+        verify(jwtUtils).parseJwtClaims(token);
         verify(userDetailsService).loadUserByUsername("testUser");
     }
 
+    @Test
+    void doFilterInternal_ClaimsAuthentication_SetsAuthenticationWithoutLookup() throws ServletException, IOException {
+        String token = "validToken";
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        ReflectionTestUtils.setField(authTokenFilter, "claimsAuthentication", true);
+
+        Claims claims = new DefaultClaims().setSubject("testUser");
+        UserDetailsImpl userDetails = UserDetailsImpl.builder().id(1L).username("testUser").build();
+        when(jwtUtils.parseJwtClaims(token)).thenReturn(claims);
+        when(jwtUtils.getUserDetailsFromJwtClaims(claims)).thenReturn(userDetails);
+
+        authTokenFilter.doFilter(request, response, filterChain);
+
+        assertSame(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void doFilterInternal_ClaimsAuthenticationLegacyToken_FallsBackToLookup() throws ServletException, IOException {
+        String token = "legacyToken";
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        ReflectionTestUtils.setField(authTokenFilter, "claimsAuthentication", true);
+
+        Claims claims = new DefaultClaims().setSubject("testUser");
+        UserDetails userDetails = User
+                .withUsername("testUser")
+                .password("password")
+                .authorities(Collections.emptyList())
+                .build();
+        when(jwtUtils.parseJwtClaims(token)).thenReturn(claims);
+        when(jwtUtils.getUserDetailsFromJwtClaims(claims)).thenReturn(null);
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
+
+        authTokenFilter.doFilter(request, response, filterChain);
+
+        assertSame(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void doFilterInternal_RevokedToken_DoesNotSetAuthentication() throws ServletException, IOException {
+        String token = "revokedToken";
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+
+        Claims claims = new DefaultClaims().setSubject("testUser").setId("revokedId");
+        when(jwtUtils.parseJwtClaims(token)).thenReturn(claims);
+        when(jwtRevocationList.isRevoked(claims)).thenReturn(true);
+
+        authTokenFilter.doFilter(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+        verify(securityEventLogger).record(Kind.REVOKED_TOKEN, "revokedId");
+        verify(filterChain).doFilter(request, response);
+    }
+
     @Test
     void doFilterInternal_InvalidToken_DoesNotSetAuthentication() throws ServletException, IOException {
         String token = "invalidToken";
         request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
 
-        when(jwtUtils.validateJwtToken(token)).thenReturn(false);
+        when(jwtUtils.parseJwtClaims(token)).thenReturn(null);
 
         authTokenFilter.doFilter(request, response, filterChain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
-        verify(jwtUtils).validateJwtToken(token);
+        verify(jwtUtils).parseJwtClaims(token);
         verifyNoInteractions(userDetailsService);
     }
 
@@ -95,13 +163,16 @@ public class AuthTokenFilterTest {
     void doFilterInternal_ExceptionThrown_LogsError() throws ServletException, IOException {
         String token = "errorToken";
         request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        RuntimeException error = new RuntimeException("Unexpected error");
 
-        when(jwtUtils.validateJwtToken(token)).thenThrow(new RuntimeException("Unexpected error"));
+        when(jwtUtils.parseJwtClaims(token)).thenThrow(error);
 
         authTokenFilter.doFilter(request, response, filterChain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
-        verify(jwtUtils).validateJwtToken(token);
+        verify(jwtUtils).parseJwtClaims(token);
+        verify(securityEventLogger).record(Kind.AUTHENTICATION_FAILED, error);
+        verify(filterChain).doFilter(request, response);
     }
 
     @Test
@@ -0,0 +1,49 @@
+package com.openclassrooms.starterjwt.units.security.jwt;
+
+import com.openclassrooms.starterjwt.security.jwt.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedKeys_AlwaysMatch() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("jti:" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(bloomFilter.mightContain("jti:" + i));
+        }
+    }
+
+    @Test
+    void mightContain_OtherKeys_RarelyMatch() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("jti:" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 1000; i < 11000; i++) {
+            if (bloomFilter.mightContain("jti:" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_EmptyFilter_NeverMatches() {
+        assertFalse(new BloomFilter(10, 0.01).mightContain("user:1"));
+    }
+
+    @Test
+    void constructor_InvalidSizing_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
@@ -0,0 +1,135 @@
+package com.openclassrooms.starterjwt.units.security.jwt;
+
+import com.openclassrooms.starterjwt.security.jwt.HmacJwtKey;
+import com.openclassrooms.starterjwt.security.jwt.JwtEngine;
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyResolver;
+import com.openclassrooms.starterjwt.security.jwt.RsaJwtKey;
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtEngineTest {
+
+    private static final String SECRET = "testSecret";
+
+    private static final RsaJwtKey RSA_KEY = RsaJwtKey.generate(2048, Instant.now());
+
+    private final JwtEngine jwtEngine = new JwtEngine(JwtKeyResolver.single(new HmacJwtKey(TextCodec.BASE64.decode(SECRET))));
+
+    private final JwtEngine rsaJwtEngine = new JwtEngine(JwtKeyResolver.single(RSA_KEY));
+
+
+    @Test
+    void sign_TokenReadableByJjwt() {
+        String token = jwtEngine.sign(claims("yoga@studio.com", System.currentTimeMillis() + 60000));
+
+        Claims claims = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+
+        assertEquals("yoga@studio.com", claims.getSubject());
+        assertEquals(7L, claims.get("id", Long.class));
+    }
+
+    @Test
+    void verify_JjwtIssuedToken_ReturnsClaims() {
+        String token = Jwts.builder()
+                .setSubject("yoga@studio.com")
+                .claim("admin", true)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        Claims claims = jwtEngine.verify(token);
+
+        assertEquals("yoga@studio.com", claims.getSubject());
+        assertTrue(claims.get("admin", Boolean.class));
+    }
+
+    @Test
+    void verify_OtherKey_ThrowsSignatureException() {
+        String token = new JwtEngine(JwtKeyResolver.single(new HmacJwtKey(TextCodec.BASE64.decode("otherSecret"))))
+                .sign(claims("yoga@studio.com", System.currentTimeMillis() + 60000));
+
+        assertThrows(SignatureException.class, () -> jwtEngine.verify(token));
+    }
+
+    @Test
+    void verify_TamperedPayload_ThrowsSignatureException() {
+        String token = jwtEngine.sign(claims("yoga@studio.com", System.currentTimeMillis() + 60000));
+        String[] parts = token.split("\\.");
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin@studio.com\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(SignatureException.class, () -> jwtEngine.verify(parts[0] + "." + forged + "." + parts[2]));
+    }
+
+    @Test
+    void sign_Rs256_TokenCarriesKidAndIsReadableByJjwt() {
+        String token = rsaJwtEngine.sign(claims("yoga@studio.com", System.currentTimeMillis() + 60000));
+
+        Jws<Claims> jws = Jwts.parser().setSigningKey(RSA_KEY.getPublicKey()).parseClaimsJws(token);
+
+        assertEquals("RS256", jws.getHeader().getAlgorithm());
+        assertEquals(RSA_KEY.getKid(), jws.getHeader().getKeyId());
+        assertEquals("yoga@studio.com", rsaJwtEngine.verify(token).getSubject());
+    }
+
+    @Test
+    void verify_Rs256UnknownKid_ThrowsSignatureException() {
+        String token = new JwtEngine(JwtKeyResolver.single(RsaJwtKey.generate(2048, Instant.now())))
+                .sign(claims("yoga@studio.com", System.currentTimeMillis() + 60000));
+
+        assertThrows(SignatureException.class, () -> rsaJwtEngine.verify(token));
+    }
+
+    @Test
+    void verify_Hs512TokenWithRsaResolver_ThrowsSignatureException() {
+        String token = jwtEngine.sign(claims("yoga@studio.com", System.currentTimeMillis() + 60000));
+
+        assertThrows(SignatureException.class, () -> rsaJwtEngine.verify(token));
+    }
+
+    @Test
+    void verify_ExpiredToken_ThrowsExpiredJwtException() {
+        String token = jwtEngine.sign(claims("yoga@studio.com", System.currentTimeMillis() - 60000));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtEngine.verify(token));
+    }
+
+    @Test
+    void verify_UnsignedToken_ThrowsUnsupportedJwtException() {
+        String token = Jwts.builder().setSubject("yoga@studio.com").compact();
+
+        assertThrows(UnsupportedJwtException.class, () -> jwtEngine.verify(token));
+    }
+
+    @Test
+    void verify_MalformedToken_ThrowsMalformedJwtException() {
+        assertThrows(MalformedJwtException.class, () -> jwtEngine.verify("invalidToken"));
+        assertThrows(MalformedJwtException.class, () -> jwtEngine.verify("a.b.c.d"));
+        assertThrows(MalformedJwtException.class, () -> jwtEngine.verify("!!.e30.e30"));
+    }
+
+    @Test
+    void verify_EmptyToken_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> jwtEngine.verify(""));
+    }
+
+    private static Map<String, Object> claims(String subject, long expiresAtMs) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(Claims.SUBJECT, subject);
+        claims.put("id", 7L);
+        claims.put(Claims.EXPIRATION, expiresAtMs / 1000);
+
+        return claims;
+    }
+}
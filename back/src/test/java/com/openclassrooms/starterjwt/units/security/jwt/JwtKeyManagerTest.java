@@ -0,0 +1,184 @@
+package com.openclassrooms.starterjwt.units.security.jwt;
+
+import com.openclassrooms.starterjwt.models.JwtSigningKey;
+import com.openclassrooms.starterjwt.repository.JwtSigningKeyRepository;
+import com.openclassrooms.starterjwt.security.jwt.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtKeyManagerTest {
+
+    private static final String SECRET = "testSecret";
+
+    private static final String KEY_ENCRYPTION_SECRET = "testKeyEncryptionSecret";
+
+    @Mock
+    private JwtSigningKeyRepository jwtSigningKeyRepository;
+
+    private final List<JwtSigningKey> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(jwtSigningKeyRepository.findAllByOrderByActivatesAtAscIdAsc()).thenAnswer(invocation -> {
+            List<JwtSigningKey> sorted = new ArrayList<>(stored);
+            sorted.sort(Comparator.comparing(JwtSigningKey::getActivatesAt));
+            return sorted;
+        });
+        lenient().when(jwtSigningKeyRepository.save(any(JwtSigningKey.class))).thenAnswer(invocation -> {
+            JwtSigningKey key = invocation.getArgument(0);
+            stored.add(key);
+            return key;
+        });
+        lenient().doAnswer(invocation -> stored.removeIf(key -> key == invocation.<JwtSigningKey>getArgument(0)))
+                .when(jwtSigningKeyRepository).delete(any(JwtSigningKey.class));
+    }
+
+
+    @Test
+    void init_NoKey_PublishesKeyThatSignsRightAway() {
+        JwtKeyManager keyManager = keyManager(true);
+
+        keyManager.init();
+
+        assertEquals(1, stored.size());
+        JwtKey signingKey = keyManager.signingKey();
+        assertEquals(stored.get(0).getKid(), signingKey.getKid());
+        assertSame(signingKey, keyManager.verificationKey("RS256", signingKey.getKid()));
+    }
+
+    @Test
+    void refresh_RotationDue_PublishesSuccessorBeforeItSigns() {
+        JwtSigningKey current = storedKey(Instant.now().minus(Duration.ofDays(7)).plus(Duration.ofMinutes(5)));
+        JwtKeyManager keyManager = keyManager(true);
+
+        keyManager.refresh();
+
+        assertEquals(2, stored.size());
+        assertEquals(current.getKid(), keyManager.signingKey().getKid());
+        assertEquals(2, ((List<?>) keyManager.jwks().get("keys")).size());
+    }
+
+    @Test
+    void refresh_RotationNotDue_KeepsKeys() {
+        storedKey(Instant.now().minus(Duration.ofDays(1)));
+        JwtKeyManager keyManager = keyManager(true);
+
+        keyManager.refresh();
+
+        assertEquals(1, stored.size());
+    }
+
+    @Test
+    void refresh_SuccessorActiveForTokenLifetime_RetiresKey() {
+        JwtSigningKey retired = storedKey(Instant.now().minus(Duration.ofDays(9)));
+        JwtSigningKey current = storedKey(Instant.now().minus(Duration.ofDays(2)));
+        JwtKeyManager keyManager = keyManager(true);
+
+        keyManager.refresh();
+
+        // JwtSigningKey equality is by id, which these unsaved entities do not have
+        List<String> storedKids = stored.stream().map(JwtSigningKey::getKid).collect(Collectors.toList());
+        assertFalse(storedKids.contains(retired.getKid()));
+        assertTrue(storedKids.contains(current.getKid()));
+        assertNull(keyManager.verificationKey("RS256", retired.getKid()));
+    }
+
+    @Test
+    void verificationKey_KeyPublishedByOtherNode_IsLoadedOnDemand() {
+        JwtKeyManager keyManager = keyManager(true);
+        keyManager.init();
+        String kid = storedKey(Instant.now().plus(Duration.ofMinutes(10))).getKid();
+        ReflectionTestUtils.setField(keyManager, "lastReload", 0L);
+
+        JwtKey key = keyManager.verificationKey("RS256", kid);
+
+        assertNotNull(key);
+        assertTrue(key.canSign());
+    }
+
+    @Test
+    void verificationKey_LegacyTokens_ResolvesHs512OnlyWhenAccepted() {
+        assertNotNull(keyManager(true).verificationKey("HS512", null));
+        assertNull(keyManager(false).verificationKey("HS512", null));
+        assertNull(keyManager(true).verificationKey("RS256", null));
+    }
+
+    @Test
+    void signingKey_StoredPrivateKeyIsEncryptedAndReadable() {
+        JwtKeyManager keyManager = keyManager(true);
+        keyManager.init();
+        JwtKey signingKey = keyManager.signingKey();
+
+        JwtKeyManager otherNode = keyManager(true);
+        otherNode.init();
+        byte[] input = "header.payload".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(otherNode.verificationKey("RS256", signingKey.getKid()).verify(input, signingKey.sign(input)));
+        assertFalse(Arrays.equals(Base64.getDecoder().decode(stored.get(0).getPrivateKey()),
+                ((RsaJwtKey) signingKey).getPrivateKey().getEncoded()));
+    }
+
+    @Test
+    void init_KeyEncryptedUnderAnotherSecret_KeepsItForVerificationAndSignsWithNewKey() {
+        RsaJwtKey previous = RsaJwtKey.generate(2048, Instant.now().minus(Duration.ofDays(1)));
+        JwtKeyManager previousManager = new JwtKeyManager(jwtSigningKeyRepository, SECRET, "previousKeyEncryptionSecret",
+                Duration.ofDays(1).toMillis(), Duration.ofDays(7), Duration.ofMinutes(10), 2048, false);
+        stored.add(ReflectionTestUtils.invokeMethod(previousManager, "toEntity", previous));
+        JwtKeyManager keyManager = keyManager(false);
+
+        keyManager.init();
+
+        assertEquals(2, stored.size());
+        JwtKey signingKey = keyManager.signingKey();
+        assertNotEquals(previous.getKid(), signingKey.getKid());
+        assertTrue(signingKey.canSign());
+
+        byte[] input = "header.payload".getBytes(StandardCharsets.US_ASCII);
+        JwtKey previousKey = keyManager.verificationKey("RS256", previous.getKid());
+        assertFalse(previousKey.canSign());
+        assertTrue(previousKey.verify(input, previous.sign(input)));
+    }
+
+    @Test
+    void constructor_PublicationDelayNotShorterThanRotation_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyManager(jwtSigningKeyRepository, SECRET, KEY_ENCRYPTION_SECRET, 86400000L,
+                Duration.ofMinutes(10), Duration.ofMinutes(10), 2048, true));
+    }
+
+    @Test
+    void constructor_KeyEncryptionSecretMissingOrSameAsJwtSecret_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyManager(jwtSigningKeyRepository, SECRET, " ", 86400000L,
+                Duration.ofDays(7), Duration.ofMinutes(10), 2048, false));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyManager(jwtSigningKeyRepository, SECRET, SECRET, 86400000L,
+                Duration.ofDays(7), Duration.ofMinutes(10), 2048, false));
+    }
+
+    private JwtKeyManager keyManager(boolean acceptLegacyTokens) {
+        return new JwtKeyManager(jwtSigningKeyRepository, SECRET, KEY_ENCRYPTION_SECRET, Duration.ofDays(1).toMillis(),
+                Duration.ofDays(7), Duration.ofMinutes(10), 2048, acceptLegacyTokens);
+    }
+
+    private JwtSigningKey storedKey(Instant activatesAt) {
+        RsaJwtKey key = RsaJwtKey.generate(2048, activatesAt);
+        JwtKeyManager keyManager = keyManager(true);
+        // Let the manager encrypt the key the way it stores its own
+        JwtSigningKey entity = ReflectionTestUtils.invokeMethod(keyManager, "toEntity", key);
+        stored.add(entity);
+        return entity;
+    }
+}
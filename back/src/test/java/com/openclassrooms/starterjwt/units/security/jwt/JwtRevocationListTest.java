@@ -0,0 +1,162 @@
+package com.openclassrooms.starterjwt.units.security.jwt;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private JwtRevocationList jwtRevocationList;
+
+    @BeforeEach
+    void setUp() {
+        jwtRevocationList = new JwtRevocationList(revokedTokenRepository, Duration.ofMinutes(15).toMillis(), 1000, 0.001);
+        lenient().when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+
+    @Test
+    void revokeToken_RevokesOnlyThatToken() {
+        jwtRevocationList.revokeToken(token("a", 1L, Instant.now()));
+
+        assertTrue(jwtRevocationList.isRevoked(token("a", 1L, Instant.now())));
+        assertFalse(jwtRevocationList.isRevoked(token("b", 1L, Instant.now())));
+    }
+
+    @Test
+    void revokeToken_PersistsUntilTokenExpiry() {
+        Claims claims = token("a", 1L, Instant.now());
+
+        jwtRevocationList.revokeToken(claims);
+
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(saved.capture());
+        assertEquals("jti:a", saved.getValue().getTokenKey());
+        assertEquals(claims.getExpiration().toInstant(), saved.getValue().getExpiresAt());
+    }
+
+    @Test
+    void revokeToken_InTransaction_RevokesOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        jwtRevocationList.revokeToken(token("a", 1L, Instant.now()));
+
+        assertFalse(jwtRevocationList.isRevoked(token("a", 1L, Instant.now())));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertTrue(jwtRevocationList.isRevoked(token("a", 1L, Instant.now())));
+    }
+
+    @Test
+    void revokeToken_TransactionRolledBack_DoesNotRevoke() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        jwtRevocationList.revokeUser(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertFalse(jwtRevocationList.isRevoked(token("a", 1L, Instant.now().minusSeconds(60))));
+    }
+
+    @Test
+    void revokeToken_NoTokenId_IsIgnored() {
+        jwtRevocationList.revokeToken(new DefaultClaims().setExpiration(new Date()));
+
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revokeUser_RevokesTokensIssuedBefore() {
+        Claims issuedBefore = token("a", 1L, Instant.now().minusSeconds(60));
+
+        jwtRevocationList.revokeUser(1L);
+
+        assertTrue(jwtRevocationList.isRevoked(issuedBefore));
+        assertFalse(jwtRevocationList.isRevoked(token("b", 1L, Instant.now().plusSeconds(60))));
+        assertFalse(jwtRevocationList.isRevoked(token("c", 2L, Instant.now().minusSeconds(60))));
+    }
+
+    @Test
+    void init_LoadsPersistedRevocations() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(Collections.singletonList(
+                revoked("jti:a", Instant.now().plusSeconds(60))));
+
+        jwtRevocationList.init();
+
+        assertTrue(jwtRevocationList.isRevoked(token("a", 1L, Instant.now())));
+    }
+
+    @Test
+    void sync_PicksUpRevocationsOfOtherNodes() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(Collections.emptyList());
+        jwtRevocationList.init();
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqual(any(Instant.class))).thenReturn(Collections.singletonList(
+                revoked("user:1", Instant.now().plusSeconds(60))));
+
+        jwtRevocationList.sync();
+
+        assertTrue(jwtRevocationList.isRevoked(token("a", 1L, Instant.now().minusSeconds(60))));
+    }
+
+    @Test
+    void purge_DropsExpiredRevocations() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(Collections.singletonList(
+                revoked("jti:a", Instant.now().minusSeconds(1))));
+        jwtRevocationList.init();
+
+        jwtRevocationList.purge();
+
+        assertFalse(jwtRevocationList.isRevoked(token("a", 1L, Instant.now())));
+        verify(revokedTokenRepository).deleteExpired(any(Instant.class));
+    }
+
+    private static Claims token(String id, Long userId, Instant issuedAt) {
+        Claims claims = new DefaultClaims()
+                .setId(id)
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(issuedAt.plus(Duration.ofMinutes(15))));
+        claims.put("id", userId);
+
+        return claims;
+    }
+
+    private static RevokedToken revoked(String key, Instant expiresAt) {
+        return RevokedToken.builder()
+                .tokenKey(key)
+                .revokedAt(Instant.now().minusSeconds(30))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
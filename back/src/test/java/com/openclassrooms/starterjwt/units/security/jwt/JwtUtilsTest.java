@@ -1,24 +1,123 @@
 package com.openclassrooms.starterjwt.units.security.jwt;
 
+import com.openclassrooms.starterjwt.security.SecurityEventLogger;
+import com.openclassrooms.starterjwt.security.SecurityEventLogger.Kind;
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyResolver;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.RsaJwtKey;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class JwtUtilsTest {
 
+    private static final RsaJwtKey RSA_KEY = RsaJwtKey.generate(2048, Instant.now());
+
+    @Mock
+    private SecurityEventLogger securityEventLogger;
+
     @InjectMocks
     private JwtUtils jwtUtils;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyResolver", JwtKeyResolver.single(RSA_KEY));
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        jwtUtils.init();
+    }
+
 
     @Test
     void validateJwtToken_InvalidToken_ReturnsFalse() {
         String invalidToken = "invalidToken";
 
         assertFalse(jwtUtils.validateJwtToken(invalidToken));
+        verify(securityEventLogger).record(eq(Kind.MALFORMED_TOKEN), anyString());
+    }
+
+    @Test
+    void generateJwtToken_UserClaims_RoundTrip() {
+        UserDetailsImpl user = UserDetailsImpl.builder()
+                .id(7L)
+                .username("yoga@studio.com")
+                .firstName("Admin")
+                .lastName("Studio")
+                .admin(true)
+                .build();
+        String token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+
+        Claims claims = jwtUtils.parseJwtClaims(token);
+        UserDetailsImpl rebuilt = jwtUtils.getUserDetailsFromJwtClaims(claims);
+
+        assertAll(
+                () -> assertNotNull(claims.getId()),
+                () -> assertEquals(7L, rebuilt.getId()),
+                () -> assertEquals("yoga@studio.com", rebuilt.getUsername()),
+                () -> assertEquals("Admin", rebuilt.getFirstName()),
+                () -> assertEquals("Studio", rebuilt.getLastName()),
+                () -> assertTrue(rebuilt.getAdmin()),
+                () -> assertNull(rebuilt.getPassword())
+        );
+    }
+
+    @Test
+    void getUserNameFromJwtToken_JjwtIssuedToken_ReturnsSubject() {
+        String token = Jwts.builder()
+                .setHeaderParam("kid", RSA_KEY.getKid())
+                .setSubject("yoga@studio.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.RS256, RSA_KEY.getPrivateKey())
+                .compact();
+
+        assertEquals("yoga@studio.com", jwtUtils.getUserNameFromJwtToken(token));
+    }
+
+    @Test
+    void validateJwtToken_ExpiredToken_ReturnsFalse() {
+        String token = Jwts.builder()
+                .setSubject("yoga@studio.com")
+                .setHeaderParam("kid", RSA_KEY.getKid())
+                .setExpiration(new Date(System.currentTimeMillis() - 60000))
+                .signWith(SignatureAlgorithm.RS256, RSA_KEY.getPrivateKey())
+                .compact();
+
+        assertFalse(jwtUtils.validateJwtToken(token));
+        verify(securityEventLogger).record(eq(Kind.EXPIRED_TOKEN), anyString());
+    }
+
+    @Test
+    void getUserDetailsFromJwtClaims_NoIdClaim_ReturnsNull() {
+        assertNull(jwtUtils.getUserDetailsFromJwtClaims(new DefaultClaims().setSubject("yoga@studio.com")));
+    }
+
+    @Test
+    void parseJwtClaims_TamperedToken_ReturnsNull() {
+        UserDetailsImpl user = UserDetailsImpl.builder().id(7L).username("yoga@studio.com").build();
+        String token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+
+        assertNull(jwtUtils.parseJwtClaims(token.substring(0, token.length() - 2) + "xx"));
+        verify(securityEventLogger).record(eq(Kind.INVALID_SIGNATURE), anyString());
     }
-}
\ No newline at end of file
+}
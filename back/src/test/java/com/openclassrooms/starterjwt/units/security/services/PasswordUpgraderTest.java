@@ -0,0 +1,135 @@
+package com.openclassrooms.starterjwt.units.security.services;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.PasswordUpgrader;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCacheEvictor;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PasswordUpgraderTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserDetailsCacheEvictor userDetailsCacheEvictor;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private PasswordUpgrader passwordUpgrader;
+
+    private final UserDetailsImpl user = UserDetailsImpl.builder()
+            .id(1L)
+            .username("yoga@studio.com")
+            .password("$2a$10$old")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        TaskExecutor executor = queued::add;
+        passwordUpgrader = new PasswordUpgrader(passwordEncoder, userRepository, userDetailsCacheEvictor, executor,
+                meterRegistry);
+    }
+
+
+    @Test
+    void needsUpgrade_DelegatesToEncoder() {
+        when(passwordEncoder.upgradeEncoding("$2a$10$old")).thenReturn(true);
+
+        assertTrue(passwordUpgrader.needsUpgrade("$2a$10$old"));
+        assertFalse(passwordUpgrader.needsUpgrade(null));
+    }
+
+    @Test
+    void upgrade_HashUnchanged_StoresNewHashAndEvictsCache() {
+        when(passwordEncoder.encode("test!1234")).thenReturn("$2a$12$new");
+        when(userRepository.updatePasswordHash(1L, "$2a$10$old", "$2a$12$new")).thenReturn(1);
+
+        passwordUpgrader.upgrade(user, "test!1234");
+        // Nothing runs on the calling thread
+        verifyNoInteractions(passwordEncoder, userRepository);
+        runQueued();
+
+        verify(userDetailsCacheEvictor).evict("yoga@studio.com");
+        assertEquals(1.0, outcome("upgraded"));
+    }
+
+    @Test
+    void upgrade_HashChangedMeanwhile_KeepsIt() {
+        when(passwordEncoder.encode("test!1234")).thenReturn("$2a$12$new");
+        when(userRepository.updatePasswordHash(1L, "$2a$10$old", "$2a$12$new")).thenReturn(0);
+
+        passwordUpgrader.upgrade(user, "test!1234");
+        runQueued();
+
+        verifyNoInteractions(userDetailsCacheEvictor);
+        assertEquals(1.0, outcome("skipped"));
+    }
+
+    @Test
+    void upgrade_AlreadyInFlight_QueuesOnce() {
+        passwordUpgrader.upgrade(user, "test!1234");
+        passwordUpgrader.upgrade(user, "test!1234");
+
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void upgrade_EncoderBusy_SkipsAndAllowsRetry() {
+        when(passwordEncoder.encode("test!1234")).thenThrow(new ServiceUnavailableException(1));
+
+        passwordUpgrader.upgrade(user, "test!1234");
+        runQueued();
+        passwordUpgrader.upgrade(user, "test!1234");
+
+        verify(userRepository, never()).updatePasswordHash(anyLong(), anyString(), anyString());
+        assertEquals(1.0, outcome("skipped"));
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void upgrade_QueueFull_Skips() {
+        passwordUpgrader = new PasswordUpgrader(passwordEncoder, userRepository, userDetailsCacheEvictor,
+                task -> {
+                    throw new TaskRejectedException("full");
+                }, meterRegistry);
+
+        passwordUpgrader.upgrade(user, "test!1234");
+
+        assertEquals(1.0, outcome("skipped"));
+        verifyNoInteractions(passwordEncoder, userRepository);
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("auth.password.upgrades").tag("outcome", outcome).counter().count();
+    }
+}
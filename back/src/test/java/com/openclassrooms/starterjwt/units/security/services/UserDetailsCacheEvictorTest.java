@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.units.security.services;
+
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCacheEvictor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class UserDetailsCacheEvictorTest {
+
+    private Cache cache;
+
+    private UserDetailsCacheEvictor evictor;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.USER_DETAILS_CACHE);
+        cache = cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE);
+        cache.put("user@example.com", "cached");
+        evictor = new UserDetailsCacheEvictor(cacheManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+
+    @Test
+    void onUserChanged_OutsideTransaction_EvictsImmediately() {
+        evictor.onUserChanged(new User("user@example.com", "LastName", "FirstName", "encodedPassword", false));
+
+        assertNull(cache.get("user@example.com"));
+    }
+
+    @Test
+    void onUserChanged_WithinTransaction_EvictsAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        evictor.onUserChanged(new User("user@example.com", "LastName", "FirstName", "encodedPassword", false));
+        assertNotNull(cache.get("user@example.com"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(cache.get("user@example.com"));
+    }
+}
@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.units.security.services;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -37,6 +38,16 @@ public class UserDetailsServiceImplTest {
         assertEquals("user@example.com", userDetails.getUsername());
     }
 
+    @Test
+    void loadUserByUsername_AdminUser_FillsAdminFlag() {
+        User user = new User("admin@example.com", "LastName", "FirstName", "encodedPassword", true);
+        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsServiceImpl.loadUserByUsername("admin@example.com");
+
+        assertTrue(userDetails.getAdmin());
+    }
+
     @Test
     void loadUserByUsername_UserDoesNotExist_ThrowsUsernameNotFoundException() {
         when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
@@ -0,0 +1,176 @@
+package com.openclassrooms.starterjwt.units.services;
+
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.EnrolmentResult;
+import com.openclassrooms.starterjwt.payload.response.EnrolmentResult.Status;
+import com.openclassrooms.starterjwt.repository.*;
+import com.openclassrooms.starterjwt.services.EnrolmentService;
+import com.openclassrooms.starterjwt.services.SeatReservationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EnrolmentServiceTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ParticipationBatchRepository participationBatchRepository;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @InjectMocks
+    private EnrolmentService enrolmentService;
+
+
+    @Test
+    void enrolUsers_MixedIds_ReturnsResultPerUserInRequestOrder() {
+        Session session = new Session().setId(1L).setCapacity(2);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.checkUsers(1L, new HashSet<>(Arrays.asList(1L, 2L, 3L, 4L, 5L))))
+                .thenReturn(Arrays.asList(userCheck(1L, 0L), userCheck(2L, 1L), userCheck(3L, 0L), userCheck(4L, 0L)));
+        when(seatReservationService.reserve(1L, 2)).thenReturn(true, true, false);
+        when(participationBatchRepository.insertMissing(anyList())).thenReturn(new int[]{1, 1});
+
+        List<EnrolmentResult> results = enrolmentService.enrolUsers(1L, Arrays.asList(1L, 2L, 3L, 4L, 5L, 1L));
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), results.stream().map(EnrolmentResult::getUserId).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(Status.ENROLLED, Status.ALREADY_PARTICIPATING, Status.ENROLLED, Status.SESSION_FULL, Status.USER_NOT_FOUND),
+                results.stream().map(EnrolmentResult::getStatus).collect(Collectors.toList()));
+        verify(participationBatchRepository, times(1)).insertMissing(anyList());
+    }
+
+    @Test
+    void enrolUsers_NobodyAccepted_SkipsInsert() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(new Session().setId(1L)));
+        when(sessionRepository.checkUsers(1L, Collections.singleton(9L))).thenReturn(Collections.emptyList());
+
+        List<EnrolmentResult> results = enrolmentService.enrolUsers(1L, Collections.singletonList(9L));
+
+        assertEquals(Status.USER_NOT_FOUND, results.get(0).getStatus());
+        verifyNoInteractions(participationBatchRepository, seatReservationService);
+    }
+
+    @Test
+    void enrolUsers_PairInsertedConcurrently_ReportsAlreadyParticipating() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(new Session().setId(1L)));
+        when(sessionRepository.checkUsers(1L, Collections.singleton(1L))).thenReturn(Collections.singletonList(userCheck(1L, 0L)));
+        when(seatReservationService.reserve(1L, null)).thenReturn(true);
+        when(participationBatchRepository.insertMissing(anyList())).thenReturn(new int[]{0});
+        when(sessionRepository.countParticipation(1L, 1L)).thenReturn(1L);
+
+        List<EnrolmentResult> results = enrolmentService.enrolUsers(1L, Collections.singletonList(1L));
+
+        assertEquals(Status.ALREADY_PARTICIPATING, results.get(0).getStatus());
+        verify(seatReservationService, times(1)).release(1L);
+        verify(seatReservationService, never()).recount(any());
+    }
+
+    @Test
+    void enrolUsers_FullInDatabase_ReportsSessionFullAndRecounts() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(new Session().setId(1L).setCapacity(1)));
+        when(sessionRepository.checkUsers(1L, Collections.singleton(1L))).thenReturn(Collections.singletonList(userCheck(1L, 0L)));
+        when(seatReservationService.reserve(1L, 1)).thenReturn(true);
+        when(participationBatchRepository.insertMissing(anyList())).thenReturn(new int[]{0});
+        when(sessionRepository.countParticipation(1L, 1L)).thenReturn(0L);
+
+        List<EnrolmentResult> results = enrolmentService.enrolUsers(1L, Collections.singletonList(1L));
+
+        assertEquals(Status.SESSION_FULL, results.get(0).getStatus());
+        verify(seatReservationService, times(1)).release(1L);
+        verify(seatReservationService, times(1)).recount(1L);
+    }
+
+    @Test
+    void enrolUsers_UniqueKeyViolated_ThrowsConflictException() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(new Session().setId(1L)));
+        when(sessionRepository.checkUsers(1L, Collections.singleton(1L))).thenReturn(Collections.singletonList(userCheck(1L, 0L)));
+        when(seatReservationService.reserve(1L, null)).thenReturn(true);
+        when(participationBatchRepository.insertMissing(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThrows(ConflictException.class, () -> enrolmentService.enrolUsers(1L, Collections.singletonList(1L)));
+    }
+
+    @Test
+    void enrolUsers_SessionNotFound_ThrowsNotFoundException() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> enrolmentService.enrolUsers(1L, Collections.singletonList(1L)));
+        verify(sessionRepository, never()).checkUsers(any(), any());
+    }
+
+    @Test
+    void enrolInSessions_MixedIds_ReturnsResultPerSession() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(sessionRepository.checkSessions(1L, new HashSet<>(Arrays.asList(1L, 2L, 3L))))
+                .thenReturn(Arrays.asList(sessionCheck(1L, 0L, 10), sessionCheck(2L, 0L, 1)));
+        when(seatReservationService.reserve(1L, 10)).thenReturn(true);
+        when(seatReservationService.reserve(2L, 1)).thenReturn(false);
+        when(participationBatchRepository.insertMissing(anyList())).thenReturn(new int[]{1});
+
+        List<EnrolmentResult> results = enrolmentService.enrolInSessions(1L, Arrays.asList(1L, 2L, 3L));
+
+        assertEquals(Arrays.asList(Status.ENROLLED, Status.SESSION_FULL, Status.SESSION_NOT_FOUND),
+                results.stream().map(EnrolmentResult::getStatus).collect(Collectors.toList()));
+    }
+
+    @Test
+    void enrolInSessions_UserNotFound_ThrowsNotFoundException() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> enrolmentService.enrolInSessions(1L, Collections.singletonList(1L)));
+        verifyNoInteractions(sessionRepository);
+    }
+
+    // Plain projections: a mock stubbed here would be stubbed inside the enclosing when(...)
+    private static ParticipationCheck userCheck(Long id, Long participating) {
+        return new ParticipationCheck() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getParticipating() {
+                return participating;
+            }
+        };
+    }
+
+    private static SessionParticipationCheck sessionCheck(Long id, Long participating, Integer capacity) {
+        return new SessionParticipationCheck() {
+            @Override
+            public Integer getCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getParticipating() {
+                return participating;
+            }
+        };
+    }
+}
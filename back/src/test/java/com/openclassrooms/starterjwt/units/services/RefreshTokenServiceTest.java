@@ -0,0 +1,166 @@
+package com.openclassrooms.starterjwt.units.services;
+
+import com.openclassrooms.starterjwt.exception.UnauthorizedException;
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    private RefreshToken stored;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, Duration.ofDays(14).toMillis());
+    }
+
+
+    @Test
+    void issue_StoresOnlyHashOfSecret() {
+        String token = refreshTokenService.issue(1L);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        String[] parts = token.split("\\.");
+        assertEquals(saved.getValue().getFamilyId(), parts[0]);
+        assertEquals(1L, saved.getValue().getUserId());
+        assertEquals(64, saved.getValue().getTokenHash().length());
+        assertFalse(saved.getValue().getTokenHash().contains(parts[1]));
+    }
+
+    @Test
+    void rotate_CurrentToken_ReturnsNextTokenOfSameFamily() {
+        String token = issued();
+        RefreshToken stored = stored();
+        User user = new User().setId(1L);
+        when(refreshTokenRepository.findById(stored.getFamilyId())).thenReturn(Optional.of(stored));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(refreshTokenRepository.rotate(eq(stored.getFamilyId()), eq(stored.getTokenHash()), anyString(), any(Instant.class))).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token);
+
+        assertSame(user, rotation.getUser());
+        assertTrue(rotation.getRefreshToken().startsWith(stored.getFamilyId() + "."));
+        assertNotEquals(token, rotation.getRefreshToken());
+    }
+
+    @Test
+    void rotate_ReusedToken_RevokesFamily() {
+        String token = issued();
+        RefreshToken stored = stored();
+        stored.setTokenHash("0000000000000000000000000000000000000000000000000000000000000000");
+        when(refreshTokenRepository.findById(stored.getFamilyId())).thenReturn(Optional.of(stored));
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(token));
+        verify(refreshTokenRepository).revoke(stored.getFamilyId());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void rotate_ConcurrentRotation_RevokesFamily() {
+        String token = issued();
+        RefreshToken stored = stored();
+        when(refreshTokenRepository.findById(stored.getFamilyId())).thenReturn(Optional.of(stored));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User().setId(1L)));
+        when(refreshTokenRepository.rotate(anyString(), anyString(), anyString(), any(Instant.class))).thenReturn(0);
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(token));
+        verify(refreshTokenRepository).revoke(stored.getFamilyId());
+    }
+
+    @Test
+    void rotate_ExpiredToken_RevokesFamily() {
+        String token = issued();
+        RefreshToken stored = stored();
+        stored.setExpiresAt(Instant.now().minusSeconds(1));
+        when(refreshTokenRepository.findById(stored.getFamilyId())).thenReturn(Optional.of(stored));
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(token));
+        verify(refreshTokenRepository).revoke(stored.getFamilyId());
+    }
+
+    @Test
+    void rotate_UserDeleted_RevokesFamily() {
+        String token = issued();
+        RefreshToken stored = stored();
+        when(refreshTokenRepository.findById(stored.getFamilyId())).thenReturn(Optional.of(stored));
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(token));
+        verify(refreshTokenRepository).revoke(stored.getFamilyId());
+        verify(refreshTokenRepository, never()).rotate(anyString(), anyString(), anyString(), any(Instant.class));
+    }
+
+    @Test
+    void rotate_UnknownOrMalformedToken_ThrowsUnauthorizedException() {
+        when(refreshTokenRepository.findById("unknown")).thenReturn(Optional.empty());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("unknown.secret"));
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("no-separator"));
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("family."));
+    }
+
+    @Test
+    void revoke_DeletesFamily() {
+        refreshTokenService.revoke("family.secret");
+        refreshTokenService.revoke("malformed");
+
+        verify(refreshTokenRepository, times(1)).revoke("family");
+    }
+
+    @Test
+    void revokeAll_DeletesEveryFamilyOfUser() {
+        refreshTokenService.revokeAll(1L);
+
+        verify(refreshTokenRepository).revokeAllByUserId(1L);
+    }
+
+    @Test
+    void purgeExpired_DeletesExpiredFamilies() {
+        when(refreshTokenRepository.deleteExpired(any(Instant.class))).thenReturn(2);
+
+        refreshTokenService.purgeExpired();
+
+        verify(refreshTokenRepository).deleteExpired(any(Instant.class));
+    }
+
+    private String issued() {
+        String token = refreshTokenService.issue(1L);
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        stored = saved.getValue();
+
+        return token;
+    }
+
+    private RefreshToken stored() {
+        return stored;
+    }
+}
@@ -0,0 +1,215 @@
+package com.openclassrooms.starterjwt.units.services;
+
+import com.openclassrooms.starterjwt.repository.SessionParticipantCount;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.services.SeatReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatReservationServiceTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @InjectMocks
+    private SeatReservationService seatReservationService;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+
+    @Test
+    void reserve_SeatsLeft_ReturnsTrue() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(1L);
+
+        assertTrue(seatReservationService.reserve(1L, 2));
+        assertEquals(2, seatReservationService.takenSeats(1L));
+    }
+
+    @Test
+    void reserve_SessionFull_ReturnsFalse() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(2L);
+
+        assertFalse(seatReservationService.reserve(1L, 2));
+        assertEquals(2, seatReservationService.takenSeats(1L));
+    }
+
+    @Test
+    void reserve_UnlimitedSession_ReturnsTrue() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(500L);
+
+        assertTrue(seatReservationService.reserve(1L, null));
+        assertEquals(501, seatReservationService.takenSeats(1L));
+    }
+
+    @Test
+    void reserve_CounterSeededOnce() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(0L);
+
+        seatReservationService.reserve(1L, 5);
+        seatReservationService.reserve(1L, 5);
+
+        verify(sessionRepository, times(1)).countParticipants(1L);
+    }
+
+    @Test
+    void reserve_ConcurrentRequests_NeverOverbooks() throws InterruptedException {
+        when(sessionRepository.countParticipants(1L)).thenReturn(0L);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+
+        for (int i = 0; i < 200; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (seatReservationService.reserve(1L, 50)) {
+                    admitted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, admitted.get());
+        assertEquals(50, seatReservationService.takenSeats(1L));
+    }
+
+    @Test
+    void reserve_TransactionRolledBack_GivesSeatBack() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(0L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        seatReservationService.reserve(1L, 1);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, seatReservationService.takenSeats(1L));
+    }
+
+    @Test
+    void release_WithinTransaction_WaitsForCommit() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        seatReservationService.release(1L);
+        assertEquals(1, seatReservationService.takenSeats(1L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(0, seatReservationService.takenSeats(1L));
+    }
+
+    @Test
+    void release_OutsideTransaction_FreesSeatImmediately() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(1L);
+        seatReservationService.takenSeats(1L);
+
+        seatReservationService.release(1L);
+
+        assertEquals(0, seatReservationService.takenSeats(1L));
+    }
+
+    @Test
+    void releaseNow_WithinTransaction_FreesSeatImmediately() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(1L);
+        seatReservationService.takenSeats(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        seatReservationService.releaseNow(1L);
+
+        assertEquals(0, seatReservationService.takenSeats(1L));
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    void hasSeatLeft_ComparesTakenSeatsWithCapacity() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(2L);
+
+        assertTrue(seatReservationService.hasSeatLeft(1L, 3));
+        assertFalse(seatReservationService.hasSeatLeft(1L, 2));
+        assertTrue(seatReservationService.hasSeatLeft(1L, null));
+    }
+
+    @Test
+    void reconcile_SeedsCountersFromParticipate() {
+        SessionParticipantCount count = mock(SessionParticipantCount.class);
+        when(count.getSessionId()).thenReturn(1L);
+        when(count.getParticipantCount()).thenReturn(3L);
+        when(sessionRepository.countAllParticipants()).thenReturn(Collections.singletonList(count));
+
+        seatReservationService.reconcile();
+
+        assertEquals(3, seatReservationService.takenSeats(1L));
+        verify(sessionRepository, never()).countParticipants(1L);
+    }
+
+    @Test
+    void recount_KeepsReservationsInFlight() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(0L, 3L);
+        TransactionSynchronizationManager.initSynchronization();
+        seatReservationService.reserve(1L, 5);
+
+        seatReservationService.recount(1L);
+        verify(sessionRepository, times(1)).countParticipants(1L);
+        assertEquals(4, seatReservationService.takenSeats(1L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(3, seatReservationService.takenSeats(1L));
+    }
+
+    @Test
+    void recount_CounterNotSeeded_DoesNotQuery() {
+        seatReservationService.recount(1L);
+
+        verify(sessionRepository, never()).countParticipants(1L);
+    }
+
+    @Test
+    void forget_ReservationInFlight_RecountsInPlace() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(1L, 0L);
+        TransactionSynchronizationManager.initSynchronization();
+        seatReservationService.reserve(1L, 5);
+
+        seatReservationService.forget(1L);
+        assertEquals(1, seatReservationService.takenSeats(1L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(0, seatReservationService.takenSeats(1L));
+        verify(sessionRepository, times(2)).countParticipants(1L);
+    }
+
+    @Test
+    void forget_ReseedsCounterOnNextUse() {
+        when(sessionRepository.countParticipants(1L)).thenReturn(1L, 4L);
+        seatReservationService.takenSeats(1L);
+
+        seatReservationService.forget(1L);
+
+        assertEquals(4, seatReservationService.takenSeats(1L));
+    }
+}
@@ -1,17 +1,26 @@
 package com.openclassrooms.starterjwt.units.services;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionParticipantCount;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SeatReleasedEvent;
+import com.openclassrooms.starterjwt.services.SeatReservationService;
 import com.openclassrooms.starterjwt.services.SessionService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.*;
 
@@ -27,6 +36,12 @@ public class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -34,12 +49,12 @@ public class SessionServiceTest {
     @Test
     void createSession_Success() {
         Session session = new Session();
-        when(sessionRepository.save(session)).thenReturn(session);
+        when(sessionRepository.saveAndFlush(session)).thenReturn(session);
 
         Session result = sessionService.create(session);
 
         assertEquals(session, result);
-        verify(sessionRepository, times(1)).save(session);
+        verify(sessionRepository, times(1)).saveAndFlush(session);
     }
 
     @Test
@@ -49,6 +64,7 @@ public class SessionServiceTest {
         sessionService.delete(sessionId);
 
         verify(sessionRepository, times(1)).deleteById(sessionId);
+        verify(seatReservationService, times(1)).forget(sessionId);
     }
 
     @Test
@@ -62,6 +78,81 @@ public class SessionServiceTest {
         verify(sessionRepository, times(1)).findAll();
     }
 
+    @Test
+    void findAllSummaries_Success() {
+        List<SessionDto> sessions = Arrays.asList(new SessionDto(), new SessionDto());
+        when(sessionRepository.findAllSummaries()).thenReturn(sessions);
+
+        List<SessionDto> result = sessionService.findAllSummaries();
+
+        assertEquals(sessions, result);
+        verify(sessionRepository, never()).findAll();
+    }
+
+    @Test
+    void findFirstPage_Success() {
+        List<SessionDto> sessions = Arrays.asList(new SessionDto(), new SessionDto());
+        when(sessionRepository.findFirstPage(PageRequest.of(0, 3))).thenReturn(sessions);
+
+        List<SessionDto> result = sessionService.findPage(null, 3);
+
+        assertEquals(sessions, result);
+        verify(sessionRepository, never()).findPageAfter(any(), any(), any());
+    }
+
+    @Test
+    void findPageAfterCursor_Success() {
+        Date date = new Date();
+        SessionCursor cursor = new SessionCursor(date, 5L);
+        List<SessionDto> sessions = Collections.singletonList(new SessionDto());
+        when(sessionRepository.findPageAfter(date, 5L, PageRequest.of(0, 3))).thenReturn(sessions);
+
+        List<SessionDto> result = sessionService.findPage(cursor, 3);
+
+        assertEquals(sessions, result);
+        verify(sessionRepository, never()).findFirstPage(any());
+    }
+
+    @Test
+    void countParticipants_Success() {
+        SessionParticipantCount count = mock(SessionParticipantCount.class);
+        when(count.getSessionId()).thenReturn(1L);
+        when(count.getParticipantCount()).thenReturn(12L);
+        when(sessionRepository.countParticipants(Arrays.asList(1L, 2L))).thenReturn(Collections.singletonList(count));
+
+        Map<Long, Long> result = sessionService.countParticipants(Arrays.asList(1L, 2L));
+
+        assertEquals(Collections.singletonMap(1L, 12L), result);
+    }
+
+    @Test
+    void countParticipants_NoSessions_DoesNotQuery() {
+        Map<Long, Long> result = sessionService.countParticipants(Collections.emptyList());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void findParticipantIds_Success() {
+        List<SessionParticipant> participants = Arrays.asList(
+                participant(1L, 1L), participant(1L, 2L), participant(2L, 2L));
+        when(sessionRepository.findParticipants(Arrays.asList(1L, 2L))).thenReturn(participants);
+
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(Arrays.asList(1L, 2L));
+
+        assertEquals(Arrays.asList(1L, 2L), result.get(1L));
+        assertEquals(Collections.singletonList(2L), result.get(2L));
+    }
+
+    @Test
+    void findParticipantIds_NoSessions_DoesNotQuery() {
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(Collections.emptyList());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(sessionRepository);
+    }
+
     @Test
     void getSessionById_Success() {
         Long sessionId = 1L;
@@ -84,86 +175,108 @@ public class SessionServiceTest {
 
         assertEquals(session, result);
         verify(sessionRepository, times(1)).save(session);
+        verify(seatReservationService, times(1)).recount(sessionId);
     }
 
     @Test
     void participateInSession_Success() {
         Long sessionId = 1L;
         Long userId = 1L;
-        Session session = Session.builder().users(new ArrayList<>()).build();
-        User user = new User();
+        Session session = Session.builder().id(sessionId).capacity(10).build();
         when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(seatReservationService.reserve(sessionId, 10)).thenReturn(true);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(1);
 
         sessionService.participate(sessionId, userId);
 
-        assertTrue(session.getUsers().contains(user));
-        verify(sessionRepository, times(1)).save(session);
+        verify(sessionRepository, times(1)).addParticipant(sessionId, userId);
+        verify(sessionRepository, never()).save(any());
     }
 
     @Test
     void participateInSession_SessionNotFound_ThrowsNotFoundException() {
         Long sessionId = 1L;
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
         when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         assertThrows(NotFoundException.class, () -> sessionService.participate(sessionId, userId));
+        verify(sessionRepository, never()).addParticipant(any(), any());
+        verifyNoInteractions(seatReservationService);
     }
 
     @Test
     void participateInSession_UserNotFound_ThrowsNotFoundException() {
         Long sessionId = 1L;
         Long userId = 1L;
-        Session session = Session.builder().users(new ArrayList<>()).build();
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(new Session()));
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> sessionService.participate(sessionId, userId));
+        verify(sessionRepository, never()).addParticipant(any(), any());
+        verifyNoInteractions(seatReservationService);
     }
 
     @Test
-    void participateInSession_AlreadyParticipate_ThrowsBadRequestException() {
+    void participateInSession_SessionFull_ThrowsConflictException() {
         Long sessionId = 1L;
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-        Session session = Session.builder().users(Collections.singletonList(user)).build();
+        Session session = Session.builder().id(sessionId).capacity(1).build();
         when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(seatReservationService.reserve(sessionId, 1)).thenReturn(false);
 
-        assertThrows(BadRequestException.class, () -> sessionService.participate(sessionId, userId));
+        assertThrows(ConflictException.class, () -> sessionService.participate(sessionId, userId));
+        verify(sessionRepository, never()).addParticipant(any(), any());
     }
 
     @Test
-    void noLongerParticipateInSession_Success() {
+    void participateInSession_FullInDatabase_RecountsAndThrowsConflictException() {
         Long sessionId = 1L;
         Long userId = 1L;
-        User userToRemove = new User();
-        userToRemove.setId(userId);
+        Session session = Session.builder().id(sessionId).capacity(1).build();
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(seatReservationService.reserve(sessionId, 1)).thenReturn(true);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(0);
 
-        User anotherUser = new User();
-        anotherUser.setId(2L);
+        assertThrows(ConflictException.class, () -> sessionService.participate(sessionId, userId));
+        verify(seatReservationService, times(1)).recount(sessionId);
+    }
 
-        Session session = Session.builder().users(new ArrayList<>()).build();
-        session.getUsers().add(userToRemove);
-        session.getUsers().add(anotherUser);
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+    @Test
+    void participateInSession_AlreadyParticipate_ThrowsBadRequestException() {
+        Long sessionId = 1L;
+        Long userId = 1L;
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(new Session()));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(seatReservationService.reserve(sessionId, null)).thenReturn(true);
+        when(sessionRepository.addParticipant(sessionId, userId))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertThrows(BadRequestException.class, () -> sessionService.participate(sessionId, userId));
+    }
+
+    @Test
+    void noLongerParticipateInSession_Success() {
+        Long sessionId = 1L;
+        Long userId = 1L;
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(1);
 
         sessionService.noLongerParticipate(sessionId, userId);
 
-        assertFalse(session.getUsers().contains(userToRemove));
-        assertTrue(session.getUsers().contains(anotherUser));
-        verify(sessionRepository, times(1)).save(session);
+        verify(sessionRepository, times(1)).removeParticipant(sessionId, userId);
+        verify(eventPublisher, times(1)).publishEvent(any(SeatReleasedEvent.class));
+        verifyNoInteractions(seatReservationService);
+        verify(sessionRepository, never()).save(any());
     }
 
     @Test
     void noLongerParticipateInSession_NotFound_ThrowsNotFoundException() {
         Long sessionId = 1L;
         Long userId = 1L;
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(0);
+        when(sessionRepository.existsById(sessionId)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> sessionService.noLongerParticipate(sessionId, userId));
     }
@@ -172,9 +285,24 @@ public class SessionServiceTest {
     void noLongerParticipateInSession_NotParticipating_ThrowsBadRequestException() {
         Long sessionId = 1L;
         Long userId = 1L;
-        Session session = Session.builder().users(Collections.emptyList()).build();
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(0);
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
 
         assertThrows(BadRequestException.class, () -> sessionService.noLongerParticipate(sessionId, userId));
+        verifyNoInteractions(seatReservationService, eventPublisher);
+    }
+
+    private static SessionParticipant participant(Long sessionId, Long userId) {
+        return new SessionParticipant() {
+            @Override
+            public Long getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+        };
     }
 }
@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.units.services;
+
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.TeacherCacheEvictor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TeacherCacheEvictorTest {
+
+    private Cache cache;
+
+    private TeacherCacheEvictor evictor;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.TEACHERS_CACHE);
+        cache = cacheManager.getCache(CacheConfig.TEACHERS_CACHE);
+        cache.put(1L, "teacher");
+        cache.put(SimpleKey.EMPTY, "teachers");
+        evictor = new TeacherCacheEvictor(cacheManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+
+    @Test
+    void onTeacherChanged_OutsideTransaction_ClearsImmediately() {
+        evictor.onTeacherChanged(new Teacher().setId(1L));
+
+        assertNull(cache.get(1L));
+        assertNull(cache.get(SimpleKey.EMPTY));
+    }
+
+    @Test
+    void onTeacherChanged_WithinTransaction_ClearsAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        evictor.onTeacherChanged(new Teacher().setId(2L));
+        assertNotNull(cache.get(SimpleKey.EMPTY));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(cache.get(1L));
+        assertNull(cache.get(SimpleKey.EMPTY));
+    }
+}
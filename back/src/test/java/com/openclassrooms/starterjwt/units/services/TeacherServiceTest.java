@@ -1,5 +1,7 @@
 package com.openclassrooms.starterjwt.units.services;
 
+import com.openclassrooms.starterjwt.config.CacheConfig;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.services.TeacherService;
@@ -7,14 +9,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,6 +32,9 @@ public class TeacherServiceTest {
     @Mock
     private TeacherRepository teacherRepository;
 
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.TEACHERS_CACHE);
+
     @InjectMocks
     private TeacherService teacherService;
 
@@ -38,6 +49,17 @@ public class TeacherServiceTest {
         verify(teacherRepository).findAll();
     }
 
+    @Test
+    void findAllDtos_ReturnsProjectedTeachers() {
+        List<TeacherDto> teachers = Collections.singletonList(new TeacherDto(1L, "Delahaye", "Margot", null, null));
+        when(teacherRepository.findAllDtos()).thenReturn(teachers);
+
+        List<TeacherDto> result = teacherService.findAllDtos();
+
+        assertEquals(teachers, result);
+        verify(teacherRepository, never()).findAll();
+    }
+
     @Test
     void findById_ExistingId_ReturnsTeacher() {
         Long teacherId = 1L;
@@ -60,4 +82,39 @@ public class TeacherServiceTest {
         assertNull(result);
         verify(teacherRepository).findById(teacherId);
     }
+
+    @Test
+    void findAllById_ReturnsMatchingTeachers() {
+        List<Long> ids = Arrays.asList(1L, 2L);
+        List<Teacher> teachers = Arrays.asList(new Teacher().setId(1L), new Teacher().setId(2L));
+        when(teacherRepository.findAllById(ids)).thenReturn(teachers);
+
+        List<Teacher> result = teacherService.findAllById(ids);
+
+        assertEquals(teachers, result);
+    }
+
+    @Test
+    void findAllById_SomeTeachersCached_LoadsOnlyTheOthers() {
+        Teacher cached = new Teacher().setId(1L);
+        Teacher loaded = new Teacher().setId(2L);
+        cacheManager.getCache(CacheConfig.TEACHERS_CACHE).put(1L, cached);
+        when(teacherRepository.findAllById(Collections.singletonList(2L))).thenReturn(Collections.singletonList(loaded));
+
+        List<Teacher> result = teacherService.findAllById(Arrays.asList(1L, 2L));
+
+        assertEquals(Arrays.asList(cached, loaded), result);
+        assertEquals(loaded, cacheManager.getCache(CacheConfig.TEACHERS_CACHE).get(2L, Teacher.class));
+    }
+
+    @Test
+    void findAllById_AllTeachersCached_DoesNotQuery() {
+        Teacher cached = new Teacher().setId(1L);
+        cacheManager.getCache(CacheConfig.TEACHERS_CACHE).put(1L, cached);
+
+        List<Teacher> result = teacherService.findAllById(Collections.singletonList(1L));
+
+        assertEquals(Collections.singletonList(cached), result);
+        verify(teacherRepository, never()).findAllById(any());
+    }
 }
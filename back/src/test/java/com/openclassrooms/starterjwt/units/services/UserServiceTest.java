@@ -1,7 +1,9 @@
 package com.openclassrooms.starterjwt.units.services;
 
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +11,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -22,6 +26,12 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtRevocationList jwtRevocationList;
+
     @InjectMocks
     private UserService userService;
 
@@ -32,6 +42,8 @@ public class UserServiceTest {
 
         userService.delete(userId);
 
+        verify(refreshTokenRepository).revokeAllByUserId(userId);
+        verify(jwtRevocationList).revokeUser(userId);
         verify(userRepository).deleteById(userId);
     }
 
@@ -66,4 +78,15 @@ public class UserServiceTest {
         assertNull(result);
         verify(userRepository).findById(userId);
     }
+
+    @Test
+    void findAllById_ReturnsMatchingUsers() {
+        List<Long> ids = Arrays.asList(1L, 2L);
+        List<User> users = Arrays.asList(new User(), new User());
+        when(userRepository.findAllById(ids)).thenReturn(users);
+
+        List<User> result = userService.findAllById(ids);
+
+        assertEquals(users, result);
+    }
 }
@@ -0,0 +1,70 @@
+package com.openclassrooms.starterjwt.units.services;
+
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.services.SeatReleasedEvent;
+import com.openclassrooms.starterjwt.services.SeatReservationService;
+import com.openclassrooms.starterjwt.services.WaitlistPromoter;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WaitlistPromoterTest {
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+
+    @Test
+    void onSeatReleased_PromotesOnExecutor() {
+        WaitlistPromoter promoter = new WaitlistPromoter(waitlistService, seatReservationService, new SyncTaskExecutor());
+
+        promoter.onSeatReleased(new SeatReleasedEvent(1L));
+
+        verify(waitlistService, times(1)).promoteNext(1L);
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    void onSeatReleased_PromotionFails_GivesSeatBack() {
+        WaitlistPromoter promoter = new WaitlistPromoter(waitlistService, seatReservationService, new SyncTaskExecutor());
+        doThrow(new IllegalStateException("database down")).when(waitlistService).promoteNext(1L);
+
+        promoter.onSeatReleased(new SeatReleasedEvent(1L));
+
+        verify(seatReservationService, times(1)).releaseNow(1L);
+    }
+
+    @Test
+    void onSeatReleased_SessionFullAfterAll_DoesNotGiveSeatBack() {
+        WaitlistPromoter promoter = new WaitlistPromoter(waitlistService, seatReservationService, new SyncTaskExecutor());
+        doThrow(new ConflictException()).when(waitlistService).promoteNext(1L);
+
+        promoter.onSeatReleased(new SeatReleasedEvent(1L));
+
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    void onSeatReleased_QueueFull_GivesSeatBack() {
+        TaskExecutor saturated = task -> {
+            throw new TaskRejectedException("queue full");
+        };
+        WaitlistPromoter promoter = new WaitlistPromoter(waitlistService, seatReservationService, saturated);
+
+        promoter.onSeatReleased(new SeatReleasedEvent(1L));
+
+        verify(seatReservationService, times(1)).releaseNow(1L);
+        verifyNoInteractions(waitlistService);
+    }
+}
@@ -0,0 +1,245 @@
+package com.openclassrooms.starterjwt.units.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.SeatReservationService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SeatReservationService seatReservationService;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+
+    @Test
+    void join_SessionFull_SavesEntry() {
+        Session session = new Session().setId(1L).setCapacity(1);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(seatReservationService.hasSeatLeft(1L, 1)).thenReturn(false);
+        when(sessionRepository.countParticipation(1L, 2L)).thenReturn(0L);
+
+        when(waitlistRepository.existsBySessionIdAndUserId(1L, 2L)).thenReturn(false);
+        when(waitlistRepository.addEntry(1L, 2L)).thenReturn(1);
+
+        waitlistService.join(1L, 2L);
+
+        verify(waitlistRepository, times(1)).addEntry(1L, 2L);
+    }
+
+    @Test
+    void join_SeatLeft_ThrowsBadRequestException() {
+        Session session = new Session().setId(1L).setCapacity(2);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(seatReservationService.hasSeatLeft(1L, 2)).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 2L));
+        verifyNoInteractions(waitlistRepository);
+    }
+
+    @Test
+    void join_AlreadyParticipating_ThrowsBadRequestException() {
+        Session session = new Session().setId(1L).setCapacity(1);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(seatReservationService.hasSeatLeft(1L, 1)).thenReturn(false);
+        when(sessionRepository.countParticipation(1L, 2L)).thenReturn(1L);
+
+        assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 2L));
+        verifyNoInteractions(waitlistRepository);
+    }
+
+    @Test
+    void join_AlreadyWaiting_ThrowsBadRequestException() {
+        Session session = new Session().setId(1L).setCapacity(1);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(seatReservationService.hasSeatLeft(1L, 1)).thenReturn(false);
+        when(sessionRepository.countParticipation(1L, 2L)).thenReturn(0L);
+        when(waitlistRepository.existsBySessionIdAndUserId(1L, 2L)).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 2L));
+        verify(waitlistRepository, never()).addEntry(anyLong(), anyLong());
+    }
+
+    @Test
+    void join_WaitingSinceCheck_ThrowsBadRequestException() {
+        Session session = new Session().setId(1L).setCapacity(1);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(seatReservationService.hasSeatLeft(1L, 1)).thenReturn(false);
+        when(sessionRepository.countParticipation(1L, 2L)).thenReturn(0L);
+        when(waitlistRepository.existsBySessionIdAndUserId(1L, 2L)).thenReturn(false);
+        when(waitlistRepository.addEntry(1L, 2L)).thenReturn(0);
+
+        assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 2L));
+    }
+
+    @Test
+    void join_ConcurrentJoin_ThrowsBadRequestException() {
+        Session session = new Session().setId(1L).setCapacity(1);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(seatReservationService.hasSeatLeft(1L, 1)).thenReturn(false);
+        when(sessionRepository.countParticipation(1L, 2L)).thenReturn(0L);
+        when(waitlistRepository.existsBySessionIdAndUserId(1L, 2L)).thenReturn(false);
+        when(waitlistRepository.addEntry(1L, 2L)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 2L));
+    }
+
+    @Test
+    void join_SessionNotFound_ThrowsNotFoundException() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> waitlistService.join(1L, 2L));
+        verifyNoInteractions(waitlistRepository, seatReservationService);
+    }
+
+    @Test
+    void join_UserNotFound_ThrowsNotFoundException() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(new Session().setId(1L)));
+        when(userRepository.existsById(2L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> waitlistService.join(1L, 2L));
+        verifyNoInteractions(waitlistRepository, seatReservationService);
+    }
+
+
+    @Test
+    void leave_Waiting_RemovesEntry() {
+        when(waitlistRepository.removeEntry(1L, 2L)).thenReturn(1);
+
+        waitlistService.leave(1L, 2L);
+
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void leave_NotWaiting_ThrowsBadRequestException() {
+        when(waitlistRepository.removeEntry(1L, 2L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> waitlistService.leave(1L, 2L));
+    }
+
+    @Test
+    void leave_SessionNotFound_ThrowsNotFoundException() {
+        when(waitlistRepository.removeEntry(1L, 2L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> waitlistService.leave(1L, 2L));
+    }
+
+
+    @Test
+    void promoteNext_EmptyWaitlist_ReleasesSeat() {
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.empty());
+
+        waitlistService.promoteNext(1L);
+
+        verify(seatReservationService, times(1)).release(1L);
+        verify(sessionRepository, never()).addParticipant(any(), any());
+    }
+
+    @Test
+    void promoteNext_HeadWaiting_EnrolsHead() {
+        WaitlistEntry head = new WaitlistEntry().setId(10L).setSessionId(1L).setUserId(2L);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.of(head));
+        when(waitlistRepository.claim(10L)).thenReturn(1);
+        when(sessionRepository.countParticipation(1L, 2L)).thenReturn(0L);
+        when(sessionRepository.addParticipant(1L, 2L)).thenReturn(1);
+
+        waitlistService.promoteNext(1L);
+
+        verify(sessionRepository, times(1)).addParticipant(1L, 2L);
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    void promoteNext_FullInDatabase_RecountsAndThrowsConflictException() {
+        WaitlistEntry head = new WaitlistEntry().setId(10L).setSessionId(1L).setUserId(2L);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.of(head));
+        when(waitlistRepository.claim(10L)).thenReturn(1);
+        when(sessionRepository.countParticipation(1L, 2L)).thenReturn(0L);
+        when(sessionRepository.addParticipant(1L, 2L)).thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> waitlistService.promoteNext(1L));
+        verify(seatReservationService, times(1)).recount(1L);
+        verify(seatReservationService, never()).release(any());
+    }
+
+    @Test
+    void promoteNext_HeadClaimedConcurrently_MovesToNextEntry() {
+        WaitlistEntry first = new WaitlistEntry().setId(10L).setSessionId(1L).setUserId(2L);
+        WaitlistEntry second = new WaitlistEntry().setId(11L).setSessionId(1L).setUserId(3L);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.of(first), Optional.of(second));
+        when(waitlistRepository.claim(10L)).thenReturn(0);
+        when(waitlistRepository.claim(11L)).thenReturn(1);
+        when(sessionRepository.countParticipation(1L, 3L)).thenReturn(0L);
+        when(sessionRepository.addParticipant(1L, 3L)).thenReturn(1);
+
+        waitlistService.promoteNext(1L);
+
+        verify(sessionRepository, never()).addParticipant(1L, 2L);
+        verify(sessionRepository, times(1)).addParticipant(1L, 3L);
+    }
+
+    @Test
+    void promoteNext_HeadAlreadyParticipating_SkipsHead() {
+        WaitlistEntry head = new WaitlistEntry().setId(10L).setSessionId(1L).setUserId(2L);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.of(head), Optional.empty());
+        when(waitlistRepository.claim(10L)).thenReturn(1);
+        when(sessionRepository.countParticipation(1L, 2L)).thenReturn(1L);
+
+        waitlistService.promoteNext(1L);
+
+        verify(sessionRepository, never()).addParticipant(any(), any());
+        verify(seatReservationService, times(1)).release(1L);
+    }
+
+    @Test
+    void promoteNext_HeadNeverClaimable_GivesSeatBackAfterBoundedAttempts() {
+        WaitlistEntry head = new WaitlistEntry().setId(10L).setSessionId(1L).setUserId(2L);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.of(head));
+        when(waitlistRepository.claim(10L)).thenReturn(0);
+
+        waitlistService.promoteNext(1L);
+
+        verify(waitlistRepository, times(10)).claim(10L);
+        verify(sessionRepository, never()).addParticipant(any(), any());
+        verify(seatReservationService, times(1)).release(1L);
+    }
+}
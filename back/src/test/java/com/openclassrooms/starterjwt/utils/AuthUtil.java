@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -20,6 +21,10 @@ public class AuthUtil {
 
 
     public String obtainAccessToken(String username, String password) throws Exception {
+        return obtainJwtResponse(username, password).getToken();
+    }
+
+    public JwtResponse obtainJwtResponse(String username, String password) throws Exception {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setEmail(username);
         loginRequest.setPassword(password);
@@ -34,9 +39,25 @@ public class AuthUtil {
                 .getResponse()
                 .getContentAsString();
 
-        JwtResponse jwtResponse = objectMapper.readValue(response, JwtResponse.class);
+        return objectMapper.readValue(response, JwtResponse.class);
+    }
+
+    /**
+     * Registers and logs in a throwaway user, for tests that must not leave state behind for the data set users.
+     */
+    public JwtResponse registerAndObtainJwtResponse(String username, String password) throws Exception {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail(username);
+        signupRequest.setFirstName("Test");
+        signupRequest.setLastName("User");
+        signupRequest.setPassword(password);
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(status().isOk());
 
-        return jwtResponse.getToken();
+        return obtainJwtResponse(username, password);
     }
 
     public String obtainAdminJwtToken() throws Exception {
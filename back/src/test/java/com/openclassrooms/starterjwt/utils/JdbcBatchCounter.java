@@ -0,0 +1,112 @@
+package com.openclassrooms.starterjwt.utils;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records the JDBC batches and single statements executed from the current thread, so that a test can tell a
+ * batched insert from one round trip per row, which the SQL Hibernate prepares does not show. Import it in the test
+ * context: it wraps every {@link DataSource} bean.
+ */
+public class JdbcBatchCounter implements BeanPostProcessor {
+    private static final ThreadLocal<List<String>> BATCHES = ThreadLocal.withInitial(ArrayList::new);
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    public static void reset() {
+        BATCHES.get().clear();
+        STATEMENTS.get().clear();
+    }
+
+    /**
+     * Number of {@code executeBatch} calls on statements containing the fragment.
+     */
+    public static long batches(String fragment) {
+        return count(BATCHES.get(), fragment);
+    }
+
+    /**
+     * Number of statements containing the fragment executed on their own, outside of a batch.
+     */
+    public static long statements(String fragment) {
+        return count(STATEMENTS.get(), fragment);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+
+        return new DelegatingDataSource((DataSource) bean) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return counting(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return counting(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(JdbcBatchCounter.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement && "prepareStatement".equals(method.getName())) {
+                        return counting((PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement counting(PreparedStatement statement, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(JdbcBatchCounter.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "executeBatch":
+                            BATCHES.get().add(sql);
+                            break;
+                        case "execute":
+                        case "executeUpdate":
+                        case "executeQuery":
+                            if (args == null) {
+                                STATEMENTS.get().add(sql);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long count(List<String> statements, String fragment) {
+        String lowerCaseFragment = fragment.toLowerCase(Locale.ROOT);
+
+        return statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains(lowerCaseFragment))
+                .count();
+    }
+}
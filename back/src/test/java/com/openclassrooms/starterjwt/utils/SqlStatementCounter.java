@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records the SQL Hibernate sends from the current thread, so that a test can count the round trips of a request
+ * without seeing the ones of scheduled tasks. Register it with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    public static long count(String fragment) {
+        String lowerCaseFragment = fragment.toLowerCase(Locale.ROOT);
+
+        return STATEMENTS.get().stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains(lowerCaseFragment))
+                .count();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+
+        return sql;
+    }
+}
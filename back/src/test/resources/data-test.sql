@@ -27,4 +27,9 @@ VALUES ('Yoga', 'Yoga session', '2023-01-01T10:00:00', 1, '2023-01-01T08:00:00',
 
 INSERT INTO PARTICIPATE (user_id, session_id)
 VALUES (1, 1),
-       (2, 2);
\ No newline at end of file
+       (2, 2);
+
+-- The rows above took their ids from AUTO_INCREMENT: start the entity id generators after them
+UPDATE ID_GENERATORS SET next_val = (SELECT MAX(id) + 1 FROM TEACHERS) WHERE sequence_name = 'TEACHERS';
+UPDATE ID_GENERATORS SET next_val = (SELECT MAX(id) + 1 FROM USERS) WHERE sequence_name = 'USERS';
+UPDATE ID_GENERATORS SET next_val = (SELECT MAX(id) + 1 FROM SESSIONS) WHERE sequence_name = 'SESSIONS';
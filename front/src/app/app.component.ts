@@ -21,6 +21,10 @@ export class AppComponent {
   }
 
   public logout(): void {
+    const refreshToken = this.sessionService.sessionInformation?.refreshToken;
+    if (refreshToken) {
+      this.authService.logout(refreshToken).subscribe({ error: () => undefined });
+    }
     this.sessionService.logOut();
     this.router.navigate([''])
   }
@@ -12,7 +12,9 @@ describe('AuthService', () => {
 
   const urls = {
     register: 'api/auth/register',
-    login: 'api/auth/login'
+    login: 'api/auth/login',
+    refresh: 'api/auth/refresh',
+    logout: 'api/auth/logout'
   };
 
   beforeEach(() => {
@@ -105,4 +107,37 @@ describe('AuthService', () => {
     expect(request.request.method).toBe('POST');
     request.flush('Unauthorized', { status: 401, statusText: 'Unauthorized' });
   });
+
+  it('should refresh a session with its refresh token', () => {
+    const sessionInfo: SessionInformation = {
+      token: 'def456',
+      refreshToken: 'family.next',
+      type: 'Bearer',
+      id: 1,
+      username: 'john.doe@example.com',
+      firstName: 'John',
+      lastName: 'Doe',
+      admin: false
+    };
+
+    authService.refresh('family.secret').subscribe(response => {
+      expect(response).toEqual(sessionInfo);
+    });
+
+    const request = httpMock.expectOne(urls.refresh);
+    expect(request.request.method).toBe('POST');
+    expect(request.request.body).toEqual({ refreshToken: 'family.secret' });
+    request.flush(sessionInfo);
+  });
+
+  it('should revoke the refresh token on logout', () => {
+    authService.logout('family.secret').subscribe(response => {
+      expect(response).toBeNull();
+    });
+
+    const request = httpMock.expectOne(urls.logout);
+    expect(request.request.method).toBe('POST');
+    expect(request.request.body).toEqual({ refreshToken: 'family.secret' });
+    request.flush(null);
+  });
 });
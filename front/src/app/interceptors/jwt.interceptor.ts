@@ -1,19 +1,61 @@
-import { HttpHandler, HttpInterceptor, HttpRequest } from "@angular/common/http";
+import { HttpErrorResponse, HttpEvent, HttpHandler, HttpInterceptor, HttpRequest } from "@angular/common/http";
 import { Injectable } from "@angular/core";
+import { Observable, catchError, finalize, shareReplay, switchMap, tap, throwError } from "rxjs";
+import { SessionInformation } from '../interfaces/sessionInformation.interface';
+import { AuthService } from '../features/auth/services/auth.service';
 import { SessionService } from '../services/session.service';
 
 @Injectable({ providedIn: 'root' })
 export class JwtInterceptor implements HttpInterceptor {
-  constructor(private sessionService: SessionService) {}
-
-  public intercept(request: HttpRequest<any>, next: HttpHandler) {
-    if (this.sessionService.isLogged) {
-      request = request.clone({
-        setHeaders: {
-          Authorization: `Bearer ${this.sessionService.sessionInformation!.token}`,
-        },
-      });
+  // A refresh token is single use: requests failing together wait for the same refresh
+  private refreshing$: Observable<SessionInformation> | null = null;
+
+  constructor(private sessionService: SessionService,
+              private authService: AuthService) {}
+
+  public intercept(request: HttpRequest<any>, next: HttpHandler): Observable<HttpEvent<any>> {
+    if (!this.sessionService.isLogged || request.url === 'api/auth/refresh') {
+      return next.handle(request);
+    }
+    if (request.url.startsWith('api/auth/')) {
+      // Lets logout revoke the access token as well
+      return next.handle(this.authorize(request));
     }
-    return next.handle(request);
+
+    return next.handle(this.authorize(request)).pipe(
+      catchError((error: HttpErrorResponse) => {
+        const refreshToken = this.sessionService.sessionInformation?.refreshToken;
+        if (error.status !== 401 || !refreshToken) {
+          return throwError(() => error);
+        }
+
+        return this.refresh(refreshToken).pipe(
+          switchMap(() => next.handle(this.authorize(request)))
+        );
+      })
+    );
+  }
+
+  private authorize(request: HttpRequest<any>): HttpRequest<any> {
+    return request.clone({
+      setHeaders: {
+        Authorization: `Bearer ${this.sessionService.sessionInformation!.token}`,
+      },
+    });
+  }
+
+  private refresh(refreshToken: string): Observable<SessionInformation> {
+    if (!this.refreshing$) {
+      this.refreshing$ = this.authService.refresh(refreshToken).pipe(
+        tap({
+          next: (sessionInformation: SessionInformation) => this.sessionService.logIn(sessionInformation),
+          error: () => this.sessionService.logOut(),
+        }),
+        finalize(() => this.refreshing$ = null),
+        shareReplay(1)
+      );
+    }
+
+    return this.refreshing$;
   }
 }
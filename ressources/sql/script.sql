@@ -1,3 +1,6 @@
+-- Schema version 1. On startup, the back end migrates it to the current version with Flyway
+-- (back/src/main/resources/db/migration); it can also create it from scratch in an empty database.
+
 CREATE TABLE `TEACHERS` (
   `id` INT PRIMARY KEY AUTO_INCREMENT,
   `last_name` VARCHAR(40),